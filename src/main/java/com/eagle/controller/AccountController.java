@@ -3,42 +3,75 @@ package com.eagle.controller;
 import com.eagle.entity.Account;
 import com.eagle.dtos.AccountResponse;
 import com.eagle.dtos.CreateAccountRequest;
+import com.eagle.dtos.ListAccountsResponse;
+import com.eagle.dtos.StripingRequest;
 import com.eagle.service.AccountService;
+import com.eagle.service.LedgerEngine;
+import com.eagle.service.StripedBalanceLedger;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
 
 @Slf4j
 @RestController
-@RequestMapping("/v1/account")
+@Validated
+@RequestMapping({"/v1/account", "/v1/accounts"})
 public class AccountController {
 
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private StripedBalanceLedger stripedBalanceLedger;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
     @PostMapping
     public ResponseEntity<AccountResponse> create(@Valid @RequestBody CreateAccountRequest request) {
         AccountResponse response = convertToResponse(accountService.create(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    private AccountResponse convertToResponse(Account account) {
-        return new AccountResponse(
-                account.getAccountNumber(),
-                account.getSortCode(),
-                account.getName(),
-                account.getAccountType(),
-                account.getBalance(),
-                account.getCurrency(),
-                account.getCreateTimeStamp(),
-                account.getUpdateTimeStamp()
-        );
+    @GetMapping
+    public ResponseEntity<ListAccountsResponse> list(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + AccountService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) Set<String> include) {
+
+        boolean includeBalance = include != null && include.contains("balance");
+        return ResponseEntity.ok(accountService.list(cursor, limit, includeBalance));
+    }
 
+    @GetMapping("/{accountNumber}")
+    public ResponseEntity<AccountResponse> get(@PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber) {
+        return ResponseEntity.ok(accountService.get(accountNumber));
+    }
+
+    @PutMapping("/{accountNumber}/striping")
+    public ResponseEntity<AccountResponse> enableStriping(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @Valid @RequestBody StripingRequest request) {
+        ledgerEngine.checkBypass("Striping");
+        Account account = stripedBalanceLedger.enableStriping(accountNumber, request.getStripes());
+        return ResponseEntity.ok(convertToResponse(account));
+    }
+
+    @DeleteMapping("/{accountNumber}/striping")
+    public ResponseEntity<AccountResponse> disableStriping(@PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber) {
+        ledgerEngine.checkBypass("Striping");
+        Account account = stripedBalanceLedger.disableStriping(accountNumber);
+        return ResponseEntity.ok(convertToResponse(account));
+    }
+
+    private AccountResponse convertToResponse(Account account) {
+        return AccountService.toResponse(account, stripedBalanceLedger.balanceOf(account));
     }
 }
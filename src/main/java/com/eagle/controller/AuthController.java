@@ -3,7 +3,9 @@ package com.eagle.controller;
 import com.eagle.dtos.AuthRequest;
 import com.eagle.dtos.AuthResponse;
 import com.eagle.dtos.ErrorResponse;
+import com.eagle.dtos.RefreshRequest;
 import com.eagle.security.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -22,12 +25,17 @@ public class AuthController {
     private AuthService authService;
 
     @PostMapping
-    public ResponseEntity<AuthResponse> auth(@Valid @RequestBody AuthRequest request) {
-        AuthResponse response = authService.authenticate(request.getUserId(), request.getPassword());
+    public ResponseEntity<AuthResponse> auth(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        AuthResponse response = authService.authenticate(request.getUserId(), request.getPassword(), httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
-    @ExceptionHandler(BadCredentialsException.class)
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @ExceptionHandler({BadCredentialsException.class, LockedException.class})
     public ResponseEntity<ErrorResponse> handleBadCredentialsException(Exception ex) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body(new ErrorResponse(
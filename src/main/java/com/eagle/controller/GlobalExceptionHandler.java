@@ -1,10 +1,22 @@
 package com.eagle.controller;
 
+import com.eagle.exceptions.AccountBusyException;
 import com.eagle.exceptions.AccountNotFoundException;
 import com.eagle.dtos.BadRequestErrorResponse;
 import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.IdempotencyKeyReuseException;
+import com.eagle.exceptions.InvalidCursorException;
+import com.eagle.exceptions.InvalidRefreshTokenException;
+import com.eagle.exceptions.InvalidTransferException;
+import com.eagle.exceptions.JournalRecordTooLargeException;
+import com.eagle.exceptions.LoginThrottledException;
+import com.eagle.exceptions.PasswordHashingBusyException;
+import com.eagle.exceptions.SubmissionNotFoundException;
+import com.eagle.exceptions.SubmissionQueueFullException;
+import com.eagle.exceptions.UnsupportedLedgerOperationException;
 import com.eagle.dtos.ErrorResponse;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -75,15 +87,119 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursorException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "Invalid Cursor"
+                ));
+    }
+
+    @ExceptionHandler(InvalidTransferException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidTransferException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "Invalid Transfer"
+                ));
+    }
+
+    @ExceptionHandler(JournalRecordTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleJournalRecordTooLargeException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "Transaction Too Large"
+                ));
+    }
+
+    @ExceptionHandler(IdempotencyKeyReuseException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReuseException(IdempotencyKeyReuseException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(new ErrorResponse(
+                        HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(SubmissionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSubmissionNotFoundException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(
+                        HttpStatus.NOT_FOUND.value(),
+                        "Submission Not Found"
+                ));
+    }
+
+    @ExceptionHandler(SubmissionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleSubmissionQueueFullException(SubmissionQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(
+                        HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "Too many pending transactions, please try again later."
+                ));
+    }
+
     @ExceptionHandler(ConcurrentTransactionException.class)
-    public ResponseEntity<ErrorResponse> handleConcurrentTransactionException(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ResponseEntity<ErrorResponse> handleConcurrentTransactionException(ConcurrentTransactionException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
                 .body(new ErrorResponse(
-                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        HttpStatus.CONFLICT.value(),
                         "Please try again later."
                 ));
     }
 
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<ErrorResponse> handleAccountBusyException(AccountBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(
+                        HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        "Account is busy, please try again later."
+                ));
+    }
+
+    @ExceptionHandler(UnsupportedLedgerOperationException.class)
+    public ResponseEntity<ErrorResponse> handleUnsupportedLedgerOperationException(UnsupportedLedgerOperationException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new ErrorResponse(
+                        HttpStatus.CONFLICT.value(),
+                        ex.getMessage()
+                ));
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse(
+                        HttpStatus.UNAUTHORIZED.value(),
+                        "Invalid refresh token"
+                ));
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleLoginThrottledException(LoginThrottledException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(
+                        HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "Too many failed login attempts, please try again later."
+                ));
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingBusyException(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(
+                        HttpStatus.SERVICE_UNAVAILABLE.value(),
+                        "Authentication is busy, please try again later."
+                ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleAllExceptions(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,40 +1,149 @@
 package com.eagle.controller;
 
-import com.eagle.entity.Transaction;
+import com.eagle.entity.Account;
+import com.eagle.dtos.BatchTransactionRequest;
+import com.eagle.dtos.BatchTransactionResponse;
 import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.CreateTransferRequest;
+import com.eagle.dtos.ListTransactionsResponse;
+import com.eagle.dtos.StatementFormat;
+import com.eagle.dtos.SubmissionResponse;
 import com.eagle.dtos.TransactionResponse;
+import com.eagle.dtos.TransferResponse;
+import com.eagle.service.AsyncTransactionService;
+import com.eagle.service.IdempotencyService;
+import com.eagle.service.TransactionBatchService;
+import com.eagle.service.TransactionExportService;
 import com.eagle.service.TransactionService;
+import com.eagle.service.TransferService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
 @Slf4j
 @RestController
-@RequestMapping("/v1/account")
+@Validated
+@RequestMapping({"/v1/account", "/v1/accounts"})
 public class TransactionController {
 
+    private static final int MAX_WAIT_SECONDS = 20;
+
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionBatchService transactionBatchService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AsyncTransactionService asyncTransactionService;
+
     @PostMapping("/{accountNumber}/transactions")
     public ResponseEntity<TransactionResponse> createTransaction(
-            @PathVariable @Pattern(regexp = "^01\\d{6}$") String accountNumber,
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String idempotencyKey,
+            @Valid @RequestBody CreateTransactionRequest request) {
+
+        IdempotencyService.Outcome outcome = idempotencyService.post(accountNumber, request, idempotencyKey);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.CREATED);
+        if (outcome.replayed()) {
+            response.header("Idempotent-Replayed", "true");
+        }
+        return response.body(outcome.response());
+    }
+
+    @PostMapping(value = "/{accountNumber}/transactions", params = "mode=async")
+    public ResponseEntity<SubmissionResponse> submitTransaction(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Size(max = 255) String idempotencyKey,
             @Valid @RequestBody CreateTransactionRequest request) {
 
-        Transaction transaction = transactionService.createTransaction(accountNumber, request);
+        AsyncTransactionService.Submission submission = asyncTransactionService.submit(accountNumber, request, idempotencyKey);
+        return ResponseEntity.accepted()
+                .location(URI.create("/v1/accounts/" + accountNumber + "/transactions/submissions/" + submission.getTrackingId()))
+                .body(submission.toResponse());
+    }
+
+    @GetMapping("/{accountNumber}/transactions/submissions/{trackingId}")
+    public CompletableFuture<ResponseEntity<SubmissionResponse>> getSubmission(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @PathVariable String trackingId,
+            @RequestParam(defaultValue = "0") int wait) {
+
+        AsyncTransactionService.Submission submission = asyncTransactionService.find(accountNumber, trackingId);
+        // Long-poll without holding a request thread: the response is written when the
+        // submission finishes or the wait runs out, whichever comes first.
+        return submission.done()
+                .thenApply(finished -> ResponseEntity.ok(finished.toResponse()))
+                .completeOnTimeout(ResponseEntity.ok(submission.toResponse()),
+                        Math.clamp(wait, 0, MAX_WAIT_SECONDS), TimeUnit.SECONDS);
+    }
+
+    @PostMapping("/{accountNumber}/transfers")
+    public ResponseEntity<TransferResponse> createTransfer(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @Valid @RequestBody CreateTransferRequest request) {
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(transferService.transfer(accountNumber, request));
+    }
+
+    @PostMapping("/transactions/batch")
+    public ResponseEntity<BatchTransactionResponse> createTransactions(
+            @Valid @RequestBody BatchTransactionRequest request) {
+
+        return ResponseEntity.ok(transactionBatchService.submit(request.getTransactions()));
+    }
+
+    @GetMapping("/{accountNumber}/transactions")
+    public ResponseEntity<ListTransactionsResponse> listTransactions(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + TransactionService.DEFAULT_PAGE_SIZE) int limit) {
+
+        return ResponseEntity.ok(transactionService.listTransactions(accountNumber, cursor, limit));
+    }
 
-        TransactionResponse transactionResponse = new TransactionResponse(
-                transaction.getId(),
-                transaction.getAmount(),
-                transaction.getCurrency(),
-                transaction.getType(),
-                transaction.getTimestamp()
-        );
+    @GetMapping("/{accountNumber}/transactions/export")
+    public void exportTransactions(
+            @PathVariable @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN) String accountNumber,
+            @RequestParam(defaultValue = "ndjson") StatementFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(transactionResponse);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        transactionExportService.export(accountNumber, format, () -> {
+            response.setContentType(format.contentType);
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"" + accountNumber + "-transactions." + format.name() + "\"");
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                return new GZIPOutputStream(response.getOutputStream(), 8192);
+            }
+            return response.getOutputStream();
+        });
     }
 }
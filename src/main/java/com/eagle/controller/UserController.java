@@ -34,7 +34,7 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    public ResponseEntity<?> get(@PathVariable("userId") String userId, Authentication authentication) {
+    public ResponseEntity<UserResponse> get(@PathVariable("userId") String userId, Authentication authentication) {
         return userService.findByUserId(userId).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
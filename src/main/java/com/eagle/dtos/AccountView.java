@@ -0,0 +1,19 @@
+package com.eagle.dtos;
+
+import com.eagle.entity.AccountType;
+import com.eagle.entity.Currency;
+
+import java.time.Instant;
+
+/**
+ * An account as read for a GET, with its owner and row version, selected column by column so no
+ * entity is loaded or tracked.
+ */
+public record AccountView(String id, String ownerUserId, String accountNumber, String sortCode, String name,
+                          AccountType accountType, long balance, Currency currency, Instant createdTimestamp,
+                          Instant updatedTimestamp, int stripeCount, long version) {
+
+    public boolean isStriped() {
+        return stripeCount > 0;
+    }
+}
@@ -7,4 +7,5 @@ import lombok.Data;
 @Data
 public class AuthResponse {
     private String token;
+    private String refreshToken;
 }
@@ -0,0 +1,12 @@
+package com.eagle.dtos;
+
+public enum BatchItemStatus {
+    applied,
+    invalid,
+    insufficient_funds,
+    balance_limit_exceeded,
+    currency_mismatch,
+    account_not_found,
+    forbidden,
+    conflict
+}
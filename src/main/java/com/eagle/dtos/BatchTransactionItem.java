@@ -0,0 +1,16 @@
+package com.eagle.dtos;
+
+import com.eagle.entity.Account;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BatchTransactionItem extends CreateTransactionRequest {
+
+    @NotNull(message = "Account number cannot be null")
+    @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN)
+    String accountNumber;
+}
@@ -0,0 +1,16 @@
+package com.eagle.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequest {
+
+    @NotEmpty(message = "Transactions cannot be empty")
+    @Size(max = 1000, message = "A batch cannot contain more than 1000 transactions")
+    List<@Valid BatchTransactionItem> transactions;
+}
@@ -0,0 +1,13 @@
+package com.eagle.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchTransactionResponse {
+
+    private List<BatchTransactionResult> results;
+}
@@ -0,0 +1,19 @@
+package com.eagle.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+public class BatchTransactionResult {
+
+    private int index;
+
+    private String accountNumber;
+
+    private BatchItemStatus status;
+
+    private TransactionResponse transaction;
+}
@@ -3,7 +3,9 @@ package com.eagle.dtos;
 import com.eagle.entity.Currency;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -14,11 +16,13 @@ public class CreateTransactionRequest {
     @NotNull(message = "Amount cannot be null")
     @DecimalMin(value = "0.00", inclusive = true, message = "Amount must be at least 0.00")
     @DecimalMax(value = "10000.00", inclusive = true, message = "Amount cannot exceed 10000.00")
+    @Digits(integer = 5, fraction = 2, message = "Amount cannot have more than 2 decimal places")
     BigDecimal amount;
     @NotNull(message = "Currency type cannot be null")
     Currency currency;
     @NotNull(message = "Transaction type cannot be null")
     TransactionType type;
 
+    @Size(max = 255, message = "Reference cannot be longer than 255 characters")
     String reference;
 }
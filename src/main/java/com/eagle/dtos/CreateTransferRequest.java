@@ -0,0 +1,31 @@
+package com.eagle.dtos;
+
+import com.eagle.entity.Account;
+import com.eagle.entity.Currency;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CreateTransferRequest {
+
+    @NotNull(message = "Destination account number cannot be null")
+    @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN)
+    String toAccountNumber;
+    @NotNull(message = "Amount cannot be null")
+    @DecimalMin(value = "0.01", inclusive = true, message = "Amount must be at least 0.01")
+    @DecimalMax(value = "10000.00", inclusive = true, message = "Amount cannot exceed 10000.00")
+    @Digits(integer = 5, fraction = 2, message = "Amount cannot have more than 2 decimal places")
+    BigDecimal amount;
+    @NotNull(message = "Currency type cannot be null")
+    Currency currency;
+
+    @Size(max = 255, message = "Reference cannot be longer than 255 characters")
+    String reference;
+}
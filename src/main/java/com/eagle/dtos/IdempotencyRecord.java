@@ -0,0 +1,28 @@
+package com.eagle.dtos;
+
+import com.eagle.entity.Currency;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * The stored outcome of a POST carrying an Idempotency-Key, with the owner it was created for and
+ * the reference it was posted with.
+ */
+public record IdempotencyRecord(String userId, TransactionResponse response, String reference) {
+
+    public IdempotencyRecord(String userId, String transactionId, long amount, Currency currency,
+                             TransactionType type, String reference, Instant timestamp) {
+        this(userId, new TransactionResponse(transactionId, amount, currency, type, timestamp), reference);
+    }
+
+    /**
+     * Whether {@code request} asks for the same transaction: amount, currency, type and reference.
+     */
+    public boolean matches(CreateTransactionRequest request) {
+        return response.getAmount().compareTo(request.getAmount()) == 0
+                && response.getCurrency() == request.getCurrency()
+                && response.getType() == request.getType()
+                && Objects.equals(reference, request.getReference());
+    }
+}
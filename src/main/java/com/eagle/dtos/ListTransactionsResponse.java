@@ -0,0 +1,17 @@
+package com.eagle.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+public class ListTransactionsResponse {
+
+    private List<TransactionResponse> transactions;
+
+    private String nextCursor;
+}
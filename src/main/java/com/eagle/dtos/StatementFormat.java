@@ -0,0 +1,12 @@
+package com.eagle.dtos;
+
+public enum StatementFormat {
+    ndjson("application/x-ndjson"),
+    csv("text/csv");
+
+    public final String contentType;
+
+    StatementFormat(String contentType) {
+        this.contentType = contentType;
+    }
+}
@@ -0,0 +1,22 @@
+package com.eagle.dtos;
+
+import com.eagle.entity.Currency;
+import com.eagle.entity.Money;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record StatementLine(
+        String transactionId,
+        BigDecimal amount,
+        Currency currency,
+        TransactionType type,
+        String reference,
+        Instant createdTimestamp
+) {
+
+    public StatementLine(String transactionId, long amount, Currency currency, TransactionType type,
+                         String reference, Instant createdTimestamp) {
+        this(transactionId, Money.toDecimal(amount), currency, type, reference, createdTimestamp);
+    }
+}
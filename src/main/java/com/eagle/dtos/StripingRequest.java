@@ -0,0 +1,17 @@
+package com.eagle.dtos;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripingRequest {
+
+    @Min(1)
+    @Max(64)
+    private int stripes;
+}
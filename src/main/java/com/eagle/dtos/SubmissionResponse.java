@@ -0,0 +1,17 @@
+package com.eagle.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@AllArgsConstructor
+public class SubmissionResponse {
+
+    private String trackingId;
+
+    private SubmissionStatus status;
+
+    private TransactionResponse transaction;
+}
@@ -0,0 +1,13 @@
+package com.eagle.dtos;
+
+public enum SubmissionStatus {
+    pending,
+    applied,
+    insufficient_funds,
+    currency_mismatch,
+    account_not_found,
+    forbidden,
+    conflict,
+    invalid,
+    failed
+}
@@ -1,6 +1,7 @@
 package com.eagle.dtos;
 
 import com.eagle.entity.Currency;
+import com.eagle.entity.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -15,4 +16,8 @@ public class TransactionResponse {
     Currency currency;
     TransactionType type;
     Instant createTimeStamp;
+
+    public TransactionResponse(String transactionId, long amount, Currency currency, TransactionType type, Instant createTimeStamp) {
+        this(transactionId, Money.toDecimal(amount), currency, type, createTimeStamp);
+    }
 }
@@ -0,0 +1,12 @@
+package com.eagle.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TransferResponse {
+
+    private TransactionResponse debit;
+    private TransactionResponse credit;
+}
@@ -36,4 +36,11 @@ public class UserResponse {
         this.createdTimestamp = createdTimestamp;
         this.updatedTimestamp = updatedTimestamp;
     }
-}
\ No newline at end of file
+
+    // Selected column by column in UserRepository, so the password hash is never read.
+    public UserResponse(String id, String name, String line1, String line2, String line3, String town, String county,
+                        String postcode, String phoneNumber, String email, Instant createdTimestamp, Instant updatedTimestamp) {
+        this(id, name, new UserAddressDTO(line1, line2, line3, town, county, postcode), phoneNumber, email,
+                createdTimestamp, updatedTimestamp);
+    }
+}
@@ -6,22 +6,32 @@ import jakarta.validation.constraints.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Check;
+import org.hibernate.annotations.DynamicUpdate;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
-@Table(name = "account")
+@Table(name = "account", indexes = {
+        @Index(name = "idx_account_user_created", columnList = "user_id, create_timestamp, account_id")
+})
 @Entity
+@DynamicUpdate
 @Getter
 @Setter
-@ToString(exclude = "transactions")
+@ToString(exclude = {"transactions", "stripes"})
 public class Account {
 
+    // 10000.00 in minor units
+    public static final long MAX_BALANCE = 1_000_000;
+
+    // The branch's two-digit prefix, see SortCode, then six digits
+    public static final String ACCOUNT_NUMBER_PATTERN = "^0[1-9]\\d{6}$";
+
     @Id
     @NotBlank
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     @Column(name = "account_id", nullable = false, unique = true)
     private String id;
 
@@ -31,7 +41,7 @@ public class Account {
     private User user;
 
     @NotNull
-    @Pattern(regexp = "^01\\d{6}$")
+    @Pattern(regexp = Account.ACCOUNT_NUMBER_PATTERN)
     @Column(name = "account_number", nullable = false, unique = true)
     private String accountNumber;
 
@@ -48,11 +58,12 @@ public class Account {
     @Column(name = "account_type", nullable = false)
     private AccountType accountType;
 
-    @NotNull
-    @DecimalMin(value = "0.00")
-    @DecimalMax(value = "10000.00")
+    // Minor units, see Money
+    @MoneyRange(max = MAX_BALANCE)
+    @Check(constraints = "balance >= 0 AND balance <= 10000.00")
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(name = "balance", nullable = false, precision = 15, scale = 2)
-    private BigDecimal balance;
+    private long balance;
 
     @NotNull
     @Enumerated(EnumType.STRING)
@@ -66,7 +77,14 @@ public class Account {
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Transaction> transactions = new ArrayList<>();
 
-    public Account(User user, String accountNumber, SortCode sortCode, String name, AccountType accountType, BigDecimal balance, Currency currency) {
+    // Number of account_stripe rows holding the balance; 0 means the balance column holds it.
+    @Column(name = "stripe_count", nullable = false)
+    private int stripeCount;
+
+    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<AccountStripe> stripes = new ArrayList<>();
+
+    public Account(User user, String accountNumber, SortCode sortCode, String name, AccountType accountType, long balance, Currency currency) {
         this.user = user;
         this.accountNumber = accountNumber;
         this.sortCode = sortCode.value;
@@ -98,15 +116,19 @@ public class Account {
     @Version
     private Long version;
 
-    public void deposit(BigDecimal amount) {
-        this.balance = this.balance.add(amount);
+    public void deposit(long amount) {
+        this.balance = Money.add(this.balance, amount);
     }
 
-    public void withdraw(BigDecimal amount) {
-        if (balance.compareTo(amount) < 0) {
+    public void withdraw(long amount) {
+        if (balance < amount) {
             throw new InsufficientFundsException("Insufficient balance");
         }
-        this.balance = this.balance.subtract(amount);
+        this.balance = Money.subtract(this.balance, amount);
+    }
+
+    public boolean isStriped() {
+        return stripeCount > 0;
     }
 
     public void addTransaction(Transaction transaction) {
@@ -7,8 +7,11 @@ import lombok.Getter;
 @Table(name = "account_sequence")
 @Getter
 public class AccountSequence {
+        // Each NEXTVAL reserves this many account numbers, see AccountNumberAllocator
+        public static final int BLOCK_SIZE = 100;
+
         @Id
         @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "acc_seq_gen")
-        @SequenceGenerator(name = "acc_seq_gen", initialValue = 1, sequenceName = "acc_seq", allocationSize = 1)
+        @SequenceGenerator(name = "acc_seq_gen", initialValue = 1, sequenceName = "acc_seq", allocationSize = BLOCK_SIZE)
         private Long id;
 }
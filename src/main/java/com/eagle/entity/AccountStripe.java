@@ -0,0 +1,52 @@
+package com.eagle.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Check;
+
+/**
+ * One slice of a striped account's balance. The account balance is the sum of its stripes, and
+ * deposits and withdrawals on different stripes do not contend for the same row lock.
+ */
+@Table(name = "account_stripe", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_account_stripe_account_index", columnNames = {"account_id", "stripe_index"})
+})
+@Entity
+@Getter
+@Setter
+@ToString(exclude = "account")
+public class AccountStripe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "stripe_id", nullable = false, unique = true)
+    private String id;
+
+    @NotNull
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(name = "stripe_index", nullable = false)
+    private int stripeIndex;
+
+    // Minor units, see Money
+    @MoneyRange
+    @Check(constraints = "balance >= 0")
+    @Convert(converter = MinorUnitsConverter.class)
+    @Column(name = "balance", nullable = false, precision = 15, scale = 2)
+    private long balance;
+
+    public AccountStripe(Account account, int stripeIndex, long balance) {
+        this.account = account;
+        this.stripeIndex = stripeIndex;
+        this.balance = balance;
+    }
+
+    public AccountStripe() {
+
+    }
+}
@@ -0,0 +1,44 @@
+package com.eagle.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money: an amount in minor units (pence) held in a plain {@code long}.
+ * <p>
+ * Balances and amounts in the ledger are these longs, so deposits, withdrawals, balance checks
+ * and validation are primitive arithmetic that neither allocates nor compares arbitrary-precision
+ * values. {@link BigDecimal} appears only where an amount crosses into JSON (the DTOs) or into
+ * the database ({@link MinorUnitsConverter} and the JDBC writers). Arithmetic is overflow-checked
+ * and throws {@link ArithmeticException} rather than wrapping.
+ */
+public final class Money {
+
+    /** Decimal places of every supported {@link Currency}. */
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than {@link #SCALE} decimal places or does not fit a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    public static long negate(long minorUnits) {
+        return Math.negateExact(minorUnits);
+    }
+}
@@ -0,0 +1,35 @@
+package com.eagle.entity;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Bounds a {@link Money} amount held in minor units. Violations report the bounds in pounds and
+ * pence. Unlike {@code @Min}/{@code @Max} it is not turned into a DDL check constraint, which would
+ * compare the decimal column against minor units; entities state their column checks explicitly.
+ */
+@Documented
+@Target(FIELD)
+@Retention(RUNTIME)
+@Constraint(validatedBy = MoneyRangeValidator.class)
+public @interface MoneyRange {
+
+    String message() default "";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /** Inclusive lower bound in minor units. */
+    long min() default 0;
+
+    /** Inclusive upper bound in minor units. */
+    long max() default Long.MAX_VALUE;
+}
@@ -0,0 +1,32 @@
+package com.eagle.entity;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class MoneyRangeValidator implements ConstraintValidator<MoneyRange, Long> {
+
+    private long min;
+    private long max;
+    private String message;
+
+    @Override
+    public void initialize(MoneyRange range) {
+        this.min = range.min();
+        this.max = range.max();
+        this.message = range.message().isEmpty()
+                ? (max == Long.MAX_VALUE
+                        ? "must be at least " + Money.toDecimal(min)
+                        : "must be between " + Money.toDecimal(min) + " and " + Money.toDecimal(max))
+                : range.message();
+    }
+
+    @Override
+    public boolean isValid(Long minorUnits, ConstraintValidatorContext context) {
+        if (minorUnits == null || (minorUnits >= min && minorUnits <= max)) {
+            return true;
+        }
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(message).addConstraintViolation();
+        return false;
+    }
+}
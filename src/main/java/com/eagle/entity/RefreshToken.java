@@ -0,0 +1,65 @@
+package com.eagle.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * One refresh token, stored only as the SHA-256 digest of the opaque value handed to the client.
+ * Every token issued by rotation belongs to the family started at login; a token is used once,
+ * and presenting a used one revokes its whole family.
+ */
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_token_user", columnList = "user_id")
+})
+@Entity
+@Getter
+@Setter
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "refresh_token_id", nullable = false, unique = true)
+    private String id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 44)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "issued_at", nullable = false)
+    private Instant issuedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // The end of the session: rotation slides expiresAt forward, but never past this.
+    @Column(name = "family_expires_at", nullable = false)
+    private Instant familyExpiresAt;
+
+    @Column(name = "rotated_at")
+    private Instant rotatedAt;
+
+    @Column(name = "revoked", nullable = false)
+    private boolean revoked;
+
+    public RefreshToken(String tokenHash, String familyId, String userId, Instant issuedAt, Instant expiresAt, Instant familyExpiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.userId = userId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.familyExpiresAt = familyExpiresAt;
+    }
+
+    public RefreshToken() {
+
+    }
+}
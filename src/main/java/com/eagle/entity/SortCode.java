@@ -1,12 +1,23 @@
 package com.eagle.entity;
 
+/**
+ * Branches, each with its own block of a million account numbers: its two-digit prefix followed
+ * by six digits.
+ */
 public enum SortCode {
-    Branch1("10-10-10");
+    Branch1("10-10-10", "01"),
+    Branch2("10-10-20", "02"),
+    Branch3("10-10-30", "03"),
+    Branch4("10-10-40", "04");
+
+    public static final int ACCOUNTS_PER_BRANCH = 1_000_000;
 
     public final String value;
+    public final String accountPrefix;
 
-    SortCode(String value) {
+    SortCode(String value, String accountPrefix) {
         this.value = value;
+        this.accountPrefix = accountPrefix;
     }
 
     @Override
@@ -4,25 +4,29 @@ import com.eagle.dtos.TransactionType;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.Data;
+import org.hibernate.annotations.Check;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "idx_transaction_account_timestamp_id", columnList = "account_id, timestamp, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_transaction_account_idempotency_key", columnNames = {"account_id", "idempotency_key"})
+})
 @Data
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     private String id;
 
-    @NotNull
-    @Positive
-    @DecimalMin(value = "0.01")
-    @DecimalMax(value = "10000.00")
+    // Minor units, see Money
+    @MoneyRange(min = 1, max = 1_000_000)
+    @Check(constraints = "amount >= 0.01 AND amount <= 10000.00")
+    @Convert(converter = MinorUnitsConverter.class)
     @Column(nullable = false, precision = 15, scale = 2)
-    private BigDecimal amount;
+    private long amount;
 
     @NotNull
     @Enumerated(EnumType.STRING)
@@ -43,14 +47,20 @@ public class Transaction {
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
+    @Size(max = 255)
     private String reference;
 
+    // Client-supplied Idempotency-Key; unique per account so a retried POST cannot post twice.
+    @Size(max = 255)
+    @Column(name = "idempotency_key", updatable = false)
+    private String idempotencyKey;
+
     @PrePersist
     protected void onCreate() {
         this.timestamp = Instant.now();
     }
 
-    public Transaction(Account account, TransactionType type, Currency currency, BigDecimal amount, String reference) {
+    public Transaction(Account account, TransactionType type, Currency currency, long amount, String reference) {
         this.account = account;
         this.type = type;
         this.currency = currency;
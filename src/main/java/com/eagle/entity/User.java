@@ -1,5 +1,6 @@
 package com.eagle.entity;
 
+import com.eagle.security.UserRevocationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -8,6 +9,7 @@ import java.time.Instant;
 
 @Table(name = "Eagle_User")
 @Entity
+@EntityListeners(UserRevocationListener.class)
 @Data
 public class User {
 
@@ -21,7 +23,7 @@ public class User {
 
     @Id
     @NotBlank
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedId
     @Column(name = "user_id", nullable = false, unique = true)
     private String userId;
 
@@ -40,6 +42,9 @@ public class User {
     @Column(name = "password_hash", nullable = false)
     private String passwordHash;
 
+    @Column(name = "locked", nullable = false)
+    private boolean locked;
+
     @Column(name = "created_timestamp", nullable = false, updatable = false)
     private Instant createdTimestamp;
 
@@ -0,0 +1,7 @@
+package com.eagle.exceptions;
+
+public class AccountBusyException extends ConcurrentTransactionException {
+    public AccountBusyException(String message, long retryAfterSeconds) {
+        super(message, retryAfterSeconds);
+    }
+}
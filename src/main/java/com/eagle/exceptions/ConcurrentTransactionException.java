@@ -1,7 +1,19 @@
 package com.eagle.exceptions;
 
 public class ConcurrentTransactionException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
     public ConcurrentTransactionException(String message) {
+        this(message, 1);
+    }
+
+    public ConcurrentTransactionException(String message, long retryAfterSeconds) {
         super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
     }
-}
\ No newline at end of file
+}
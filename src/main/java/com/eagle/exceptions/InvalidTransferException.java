@@ -0,0 +1,7 @@
+package com.eagle.exceptions;
+
+public class InvalidTransferException extends RuntimeException {
+    public InvalidTransferException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.eagle.exceptions;
+
+public class JournalRecordTooLargeException extends RuntimeException {
+    public JournalRecordTooLargeException(String message) {
+        super(message);
+    }
+}
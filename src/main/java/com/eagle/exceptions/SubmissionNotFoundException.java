@@ -0,0 +1,7 @@
+package com.eagle.exceptions;
+
+public class SubmissionNotFoundException extends RuntimeException {
+    public SubmissionNotFoundException(String message) {
+        super(message);
+    }
+}
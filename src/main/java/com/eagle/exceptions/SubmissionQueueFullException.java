@@ -0,0 +1,15 @@
+package com.eagle.exceptions;
+
+public class SubmissionQueueFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public SubmissionQueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
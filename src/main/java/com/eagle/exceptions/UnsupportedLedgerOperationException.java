@@ -0,0 +1,7 @@
+package com.eagle.exceptions;
+
+public class UnsupportedLedgerOperationException extends RuntimeException {
+    public UnsupportedLedgerOperationException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.eagle.journal;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When a {@link MappedSegmentJournal} forces appended records to the storage device.
+ * <p>
+ * Appends land in the page cache as soon as they are written, so a process crash loses nothing
+ * either way; the policy only bounds what a power loss or kernel crash can take with it.
+ * <ul>
+ *     <li>{@code always}: every {@link LedgerJournal#sync()} forces, so acknowledged records are durable.</li>
+ *     <li>{@code interval}: force at most once per {@code intervalMillis}.</li>
+ *     <li>{@code records}: force once {@code everyRecords} records are waiting.</li>
+ * </ul>
+ */
+public record FsyncPolicy(Mode mode, long intervalMillis, int everyRecords) {
+
+    public enum Mode {
+        always,
+        interval,
+        records
+    }
+
+    public static FsyncPolicy always() {
+        return new FsyncPolicy(Mode.always, 0, 1);
+    }
+
+    boolean isDue(int unforcedRecords, long nanosSinceForce) {
+        return switch (mode) {
+            case always -> unforcedRecords > 0;
+            case interval -> unforcedRecords > 0 && nanosSinceForce >= TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            case records -> unforcedRecords >= everyRecords;
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.eagle.journal;
+
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Compact binary form of a {@link JournalRecord}: UTF ids, enum ordinals, the amount in minor
+ * units, an optional reference and idempotency key, and the timestamp as epoch
+ * seconds and nanos.
+ */
+final class JournalCodec {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private JournalCodec() {
+    }
+
+    static void write(JournalRecord record, DataOutput out) throws IOException {
+        out.writeUTF(record.transactionId());
+        out.writeUTF(record.accountId());
+        out.writeByte(record.type().ordinal());
+        out.writeByte(record.currency().ordinal());
+        out.writeLong(record.amount());
+        writeOptional(record.reference(), out);
+        writeOptional(record.idempotencyKey(), out);
+        out.writeLong(record.timestamp().getEpochSecond());
+        out.writeInt(record.timestamp().getNano());
+    }
+
+    static JournalRecord read(DataInput in) throws IOException {
+        String transactionId = in.readUTF();
+        String accountId = in.readUTF();
+        TransactionType type = TYPES[in.readByte()];
+        Currency currency = CURRENCIES[in.readByte()];
+        long amount = in.readLong();
+        String reference = readOptional(in);
+        String idempotencyKey = readOptional(in);
+        Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return new JournalRecord(transactionId, accountId, type, currency, amount, reference, idempotencyKey, timestamp);
+    }
+
+    private static void writeOptional(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readOptional(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.eagle.journal;
+
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+
+import java.time.Instant;
+
+/**
+ * One accepted deposit or withdrawal as written to the ledger journal. Carries everything needed
+ * to rebuild the {@code transaction} row and the account balance change without the database.
+ */
+public record JournalRecord(
+        String transactionId,
+        String accountId,
+        TransactionType type,
+        Currency currency,
+        long amount,
+        String reference,
+        String idempotencyKey,
+        Instant timestamp
+) {
+
+    /** Balance change this record applies to its account, in minor units. */
+    public long signedAmount() {
+        return type == TransactionType.withdraw ? -amount : amount;
+    }
+}
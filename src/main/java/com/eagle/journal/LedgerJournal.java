@@ -0,0 +1,38 @@
+package com.eagle.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Sequential, append-only log of accepted ledger records. Every record gets a sequence number;
+ * once the database holds all records up to a sequence the owner reports it through
+ * {@link #checkpoint(long)}, and anything after the checkpoint is handed back by
+ * {@link #unpersisted()} when the journal is reopened.
+ */
+public interface LedgerJournal extends Closeable {
+
+    /**
+     * Appends the record and returns its sequence number.
+     *
+     * @throws com.eagle.exceptions.JournalRecordTooLargeException if the record can never fit in the
+     *         journal; nothing is written and the journal stays usable
+     * @throws IOException if writing to the journal failed
+     */
+    long append(JournalRecord record) throws IOException;
+
+    /** Forces appended records to disk if the fsync policy says it is time. */
+    void sync() throws IOException;
+
+    /** Forces every appended record to disk regardless of the fsync policy. */
+    void force() throws IOException;
+
+    /** Sequence number of the last record appended or recovered, 0 for an empty journal. */
+    long lastSequence();
+
+    /** Records that the database holds every record up to and including {@code sequence}. May be called from any thread. */
+    void checkpoint(long sequence);
+
+    /** Records found after the checkpoint when the journal was opened, in append order. */
+    List<JournalRecord> unpersisted();
+}
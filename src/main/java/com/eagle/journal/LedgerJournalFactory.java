@@ -0,0 +1,33 @@
+package com.eagle.journal;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Opens named {@link MappedSegmentJournal}s under {@code eagle.ledger.journal.dir} with the
+ * configured segment size and fsync policy.
+ */
+@Component
+public class LedgerJournalFactory {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+
+    public LedgerJournalFactory(@Value("${eagle.ledger.journal.dir:./ledger-journal}") String directory,
+                                @Value("${eagle.ledger.journal.segment-size-mb:64}") int segmentSizeMb,
+                                @Value("${eagle.ledger.journal.fsync:always}") FsyncPolicy.Mode fsyncMode,
+                                @Value("${eagle.ledger.journal.fsync-interval-ms:10}") long fsyncIntervalMillis,
+                                @Value("${eagle.ledger.journal.fsync-records:100}") int fsyncRecords) {
+        this.directory = Path.of(directory);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.fsyncPolicy = new FsyncPolicy(fsyncMode, fsyncIntervalMillis, fsyncRecords);
+    }
+
+    public LedgerJournal open(String name) throws IOException {
+        return new MappedSegmentJournal(directory.resolve(name), segmentSize, fsyncPolicy);
+    }
+}
@@ -0,0 +1,261 @@
+package com.eagle.journal;
+
+import com.eagle.exceptions.JournalRecordTooLargeException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead journal over memory-mapped segment files.
+ * <p>
+ * Each record is framed as its payload length, a CRC32 of the payload, then the payload itself:
+ * the record's sequence number followed by its {@link JournalCodec} encoding. Segments are
+ * preallocated to {@code segmentSize} bytes, so unused space reads as a zero length and marks the
+ * end of the log. When a record does not fit, the segment is forced and a new one named after
+ * the next sequence number is started; a record larger than a whole segment, or with a string over
+ * the 64 KB {@code writeUTF} limit, is refused before anything is written. Segments whose records
+ * are all at or below the checkpoint are deleted when the journal rolls.
+ * <p>
+ * Opening the journal scans every segment. A frame with a bad length, CRC or sequence number in
+ * the newest segment is a torn write: the log is truncated there. The same damage in an older
+ * segment, which was forced before it was rolled, fails the open instead of silently dropping records.
+ * <p>
+ * Not thread-safe apart from {@link #checkpoint(long)}: each journal is owned by one writer thread.
+ */
+public class MappedSegmentJournal implements LedgerJournal {
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int FRAME_HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final MappedByteBuffer checkpointBuffer;
+    private final Deque<Segment> closedSegments = new ArrayDeque<>();
+    private final List<JournalRecord> unpersisted = new ArrayList<>();
+    private final CRC32 crc = new CRC32();
+    private final ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+    private final DataOutputStream out = new DataOutputStream(scratch);
+
+    private Segment active;
+    private MappedByteBuffer buffer;
+    private long lastSequence;
+    private int forcedPosition;
+    private int unforcedRecords;
+    private long lastForceNanos = System.nanoTime();
+    private volatile long checkpointed;
+    private boolean closed;
+
+    public MappedSegmentJournal(Path directory, int segmentSize, FsyncPolicy fsyncPolicy) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        Files.createDirectories(directory);
+        this.checkpointBuffer = map(directory.resolve(CHECKPOINT_FILE), 2 * Long.BYTES);
+        long stored = checkpointBuffer.getLong(0);
+        // The checkpoint is never forced; a torn one only means replaying more, since replay is idempotent.
+        this.checkpointed = checkpointBuffer.getLong(Long.BYTES) == ~stored ? stored : 0;
+        recover();
+    }
+
+    @Override
+    public long append(JournalRecord record) throws IOException {
+        scratch.reset();
+        out.writeLong(lastSequence + 1);
+        try {
+            JournalCodec.write(record, out);
+        } catch (UTFDataFormatException ex) {
+            throw new JournalRecordTooLargeException("Journal record has a field longer than 65535 encoded bytes");
+        }
+        byte[] payload = scratch.toByteArray();
+        int frameBytes = FRAME_HEADER_BYTES + payload.length;
+        if (frameBytes > segmentSize) {
+            throw new JournalRecordTooLargeException("Journal record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (buffer.remaining() < frameBytes) {
+            roll();
+        }
+
+        crc.reset();
+        crc.update(payload);
+        int start = buffer.position();
+        buffer.position(start + FRAME_HEADER_BYTES);
+        buffer.put(payload);
+        buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        buffer.putInt(start, payload.length);
+        unforcedRecords++;
+        return ++lastSequence;
+    }
+
+    @Override
+    public void sync() throws IOException {
+        if (fsyncPolicy.isDue(unforcedRecords, System.nanoTime() - lastForceNanos)) {
+            force();
+        }
+    }
+
+    @Override
+    public void force() {
+        if (unforcedRecords > 0) {
+            buffer.force(forcedPosition, buffer.position() - forcedPosition);
+            forcedPosition = buffer.position();
+            unforcedRecords = 0;
+        }
+        lastForceNanos = System.nanoTime();
+    }
+
+    @Override
+    public long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void checkpoint(long sequence) {
+        if (sequence > checkpointed) {
+            checkpointBuffer.putLong(0, sequence);
+            checkpointBuffer.putLong(Long.BYTES, ~sequence);
+            checkpointed = sequence;
+        }
+    }
+
+    @Override
+    public List<JournalRecord> unpersisted() {
+        return Collections.unmodifiableList(unpersisted);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            force();
+            closed = true;
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            String name = file.getFileName().toString();
+            Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+            long size = Files.size(file);
+            MappedByteBuffer mapped = map(file, size == 0 ? segmentSize : size);
+            boolean newest = i == files.size() - 1;
+            if (!scan(segment, mapped) && !newest) {
+                throw new IOException("Corrupt ledger journal segment " + file);
+            }
+            if (newest) {
+                active = segment;
+                buffer = mapped;
+            } else {
+                closedSegments.add(segment);
+            }
+        }
+        if (active == null) {
+            lastSequence = checkpointed;
+            openSegment();
+        }
+        forcedPosition = buffer.position();
+        deleteCheckpointedSegments();
+    }
+
+    /**
+     * Reads the segment's frames into {@link #unpersisted} and leaves {@code mapped} positioned at
+     * the end of the last good frame. Returns false if the scan stopped at a damaged frame.
+     */
+    private boolean scan(Segment segment, MappedByteBuffer mapped) throws IOException {
+        lastSequence = segment.base() - 1;
+        int position = 0;
+        boolean intact = true;
+        while (position + FRAME_HEADER_BYTES <= mapped.capacity()) {
+            int length = mapped.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < Long.BYTES || length > mapped.capacity() - position - FRAME_HEADER_BYTES) {
+                intact = false;
+                break;
+            }
+            byte[] payload = new byte[length];
+            mapped.get(position + FRAME_HEADER_BYTES, payload);
+            crc.reset();
+            crc.update(payload);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if ((int) crc.getValue() != mapped.getInt(position + Integer.BYTES) || in.readLong() != lastSequence + 1) {
+                intact = false;
+                break;
+            }
+            JournalRecord record = JournalCodec.read(in);
+            lastSequence++;
+            if (lastSequence > checkpointed) {
+                unpersisted.add(record);
+            }
+            position += FRAME_HEADER_BYTES + length;
+        }
+        if (!intact) {
+            // Clear the torn tail so a shorter frame appended over it cannot be followed by stale bytes.
+            for (int i = position; i < mapped.capacity(); i++) {
+                mapped.put(i, (byte) 0);
+            }
+            mapped.force();
+        }
+        mapped.position(position);
+        return intact;
+    }
+
+    private void roll() throws IOException {
+        force();
+        closedSegments.add(active);
+        openSegment();
+        forcedPosition = 0;
+        deleteCheckpointedSegments();
+    }
+
+    private void openSegment() throws IOException {
+        active = new Segment(lastSequence + 1, directory.resolve(String.format("%020d%s", lastSequence + 1, SEGMENT_SUFFIX)));
+        buffer = map(active.path(), segmentSize);
+        // Make the new file's directory entry durable too, or a forced segment could vanish on power loss.
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException ex) {
+            // Directories cannot be opened for sync on every platform; the segment contents are still forced.
+        }
+    }
+
+    private void deleteCheckpointedSegments() throws IOException {
+        long checkpoint = checkpointed;
+        while (!closedSegments.isEmpty()) {
+            Segment oldest = closedSegments.removeFirst();
+            Segment next = closedSegments.isEmpty() ? active : closedSegments.peekFirst();
+            if (next.base() - 1 > checkpoint) {
+                closedSegments.addFirst(oldest);
+                return;
+            }
+            Files.deleteIfExists(oldest.path());
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    private record Segment(long base, Path path) {}
+}
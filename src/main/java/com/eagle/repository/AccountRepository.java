@@ -1,12 +1,19 @@
 package com.eagle.repository;
 
+import com.eagle.dtos.AccountView;
 import com.eagle.entity.Account;
 import com.eagle.entity.User;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,6 +21,45 @@ public interface AccountRepository extends JpaRepository<Account, String> {
 
     Optional<Account> findByAccountNumber(String accountNumber);
 
+    // Read path: only the columns a GET needs, so no entity is loaded, snapshotted or dirty-checked.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.AccountView(a.id, a.user.userId, a.accountNumber, a.sortCode, a.name,
+                a.accountType, a.balance, a.currency, a.createTimeStamp, a.updateTimeStamp, a.stripeCount, a.version)
+            FROM Account a
+            WHERE a.accountNumber = :accountNumber
+            """)
+    Optional<AccountView> findViewByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    // First page of a user's accounts, oldest first, read in index order from idx_account_user_created.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.AccountView(a.id, a.user.userId, a.accountNumber, a.sortCode, a.name,
+                a.accountType, a.balance, a.currency, a.createTimeStamp, a.updateTimeStamp, a.stripeCount, a.version)
+            FROM Account a
+            WHERE a.user.userId = :userId
+            ORDER BY a.createTimeStamp, a.id
+            """)
+    List<AccountView> findOwned(@Param("userId") String userId, Limit limit);
+
+    // Keyset page: seeks past the cursor on idx_account_user_created instead of skipping rows.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.AccountView(a.id, a.user.userId, a.accountNumber, a.sortCode, a.name,
+                a.accountType, a.balance, a.currency, a.createTimeStamp, a.updateTimeStamp, a.stripeCount, a.version)
+            FROM Account a
+            WHERE a.user.userId = :userId
+              AND (a.createTimeStamp > :timestamp OR (a.createTimeStamp = :timestamp AND a.id > :id))
+            ORDER BY a.createTimeStamp, a.id
+            """)
+    List<AccountView> findOwnedAfter(@Param("userId") String userId,
+                                     @Param("timestamp") Instant timestamp,
+                                     @Param("id") String id,
+                                     Limit limit);
+
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Account> findWithLockingByAccountNumber(String accountNumber);
+
+    @Query("SELECT a.stripeCount FROM Account a WHERE a.accountNumber = :accountNumber")
+    Optional<Integer> findStripeCountByAccountNumber(@Param("accountNumber") String accountNumber);
 }
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 public interface AccountSequenceRepository extends JpaRepository<AccountSequence, Long>  {
+    // The sequence steps by AccountSequence.BLOCK_SIZE, so each value is the first of a block of numbers.
     @Query(value = "SELECT NEXTVAL('acc_seq')", nativeQuery = true)
     Long getNextSequenceValue();
 }
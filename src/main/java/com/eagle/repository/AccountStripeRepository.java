@@ -0,0 +1,58 @@
+package com.eagle.repository;
+
+import com.eagle.entity.AccountStripe;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface AccountStripeRepository extends JpaRepository<AccountStripe, String> {
+
+    // Applies the change only if the stripe stays within [0, ceiling]; a miss takes no lock that outlives the statement.
+    // Native so the decimal parameters bind as-is; JPQL does not run the minor-units converter on arithmetic operands.
+    @Modifying
+    @Query(value = """
+            UPDATE account_stripe SET balance = balance + :delta
+            WHERE account_id = :accountId AND stripe_index = :stripeIndex
+              AND balance + :delta >= 0 AND balance + :delta <= :ceiling
+            """, nativeQuery = true)
+    int applyDelta(@Param("accountId") String accountId,
+                   @Param("stripeIndex") int stripeIndex,
+                   @Param("delta") BigDecimal delta,
+                   @Param("ceiling") BigDecimal ceiling);
+
+    // Locks in stripe order, so consolidations that hold no stripe yet cannot deadlock each other. One that already
+    // holds a stripe from an earlier applyDelta in its transaction can; StripedBalanceLedger reports that as a conflict.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM AccountStripe s WHERE s.account.id = :accountId ORDER BY s.stripeIndex")
+    List<AccountStripe> findAllForUpdate(@Param("accountId") String accountId);
+
+    // Summed in SQL on the decimal column, so the result is in pounds rather than minor units.
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM AccountStripe s WHERE s.account.id = :accountId")
+    BigDecimal sumBalance(@Param("accountId") String accountId);
+
+    // The same sum for several accounts in one statement; accounts without stripes are left out.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT s.account.id AS accountId, SUM(s.balance) AS balance
+            FROM AccountStripe s
+            WHERE s.account.id IN :accountIds
+            GROUP BY s.account.id
+            """)
+    List<StripeTotal> sumBalances(@Param("accountIds") Collection<String> accountIds);
+
+    interface StripeTotal {
+        String getAccountId();
+
+        BigDecimal getBalance();
+    }
+}
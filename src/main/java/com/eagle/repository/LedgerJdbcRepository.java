@@ -0,0 +1,67 @@
+package com.eagle.repository;
+
+import com.eagle.entity.Money;
+import com.eagle.journal.JournalRecord;
+import jakarta.transaction.Transactional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes journaled ledger records to the {@code transaction} and {@code account} tables with
+ * plain JDBC batches. Used by engines that acknowledge before the database commit and so
+ * assign transaction ids themselves, which JPA's generated-id persist does not allow.
+ */
+@Repository
+public class LedgerJdbcRepository {
+
+    private static final String INSERT_TRANSACTION = """
+            INSERT INTO transaction (id, account_id, type, currency, amount, reference, idempotency_key, timestamp)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String APPLY_BALANCE_DELTA = """
+            UPDATE account SET balance = balance + ?, version = version + 1, update_timestamp = ?
+            WHERE account_id = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LedgerJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the records and applies their net balance change per account in one database transaction.
+     */
+    @Transactional
+    public void persist(List<JournalRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, records, records.size(), (ps, record) -> {
+            ps.setString(1, record.transactionId());
+            ps.setString(2, record.accountId());
+            ps.setString(3, record.type().name());
+            ps.setString(4, record.currency().name());
+            ps.setBigDecimal(5, Money.toDecimal(record.amount()));
+            ps.setString(6, record.reference());
+            ps.setString(7, record.idempotencyKey());
+            ps.setTimestamp(8, Timestamp.from(record.timestamp()));
+        });
+
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        for (JournalRecord record : records) {
+            deltas.merge(record.accountId(), record.signedAmount(), Money::add);
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(APPLY_BALANCE_DELTA, new ArrayList<>(deltas.entrySet()), deltas.size(), (ps, delta) -> {
+            ps.setBigDecimal(1, Money.toDecimal(delta.getValue()));
+            ps.setTimestamp(2, now);
+            ps.setString(3, delta.getKey());
+        });
+    }
+}
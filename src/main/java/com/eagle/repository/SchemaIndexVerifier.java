@@ -0,0 +1,113 @@
+package com.eagle.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stops startup if the database lacks an index that one of our hot queries depends on, instead of
+ * letting the query fall back to a full scan in production.
+ * <p>
+ * Runs once the schema exists, whether it came from Hibernate or from the migrations. An expected
+ * index is satisfied by any index, primary key or unique constraint whose leading columns are the
+ * expected ones, whatever it is called.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "eagle.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier implements SmartInitializingSingleton {
+
+    static final List<ExpectedIndex> EXPECTED = List.of(
+            new ExpectedIndex("eagle_user", "user_id"),
+            new ExpectedIndex("eagle_user", "email"),
+            new ExpectedIndex("account", "account_number"),
+            new ExpectedIndex("account", "user_id", "create_timestamp", "account_id"),
+            new ExpectedIndex("account_stripe", "account_id", "stripe_index"),
+            new ExpectedIndex("transaction", "account_id", "timestamp", "id"),
+            new ExpectedIndex("transaction", "account_id", "idempotency_key"),
+            new ExpectedIndex("refresh_token", "token_hash"),
+            new ExpectedIndex("refresh_token", "family_id"),
+            new ExpectedIndex("refresh_token", "user_id")
+    );
+
+    private final DataSource dataSource;
+
+    public SchemaIndexVerifier(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        List<ExpectedIndex> missing;
+        try (Connection connection = dataSource.getConnection()) {
+            missing = missing(connection, EXPECTED);
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Could not read database indexes", ex);
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Database is missing indexes on " + missing);
+        }
+        log.info("All {} expected database indexes are present", EXPECTED.size());
+    }
+
+    static List<ExpectedIndex> missing(Connection connection, Collection<ExpectedIndex> expected) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        List<ExpectedIndex> missing = new ArrayList<>();
+        for (ExpectedIndex index : expected) {
+            if (indexes(metaData, connection, index.table()).stream().noneMatch(index::coveredBy)) {
+                missing.add(index);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * The column lists of every index on the table, in index column order.
+     */
+    private static Collection<List<String>> indexes(DatabaseMetaData metaData, Connection connection, String table) throws SQLException {
+        String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT)
+                : metaData.storesLowerCaseIdentifiers() ? table.toLowerCase(Locale.ROOT)
+                : table;
+        Map<String, List<String>> columns = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), name, false, true)) {
+            while (rows.next()) {
+                String indexName = rows.getString("INDEX_NAME");
+                String column = rows.getString("COLUMN_NAME");
+                if (indexName != null && column != null) {
+                    // Rows come ordered by index, then by ORDINAL_POSITION.
+                    columns.computeIfAbsent(indexName, key -> new ArrayList<>()).add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return columns.values();
+    }
+
+    record ExpectedIndex(String table, List<String> columns) {
+
+        ExpectedIndex(String table, String... columns) {
+            this(table, List.of(columns));
+        }
+
+        boolean coveredBy(List<String> indexColumns) {
+            return indexColumns.size() >= columns.size() && indexColumns.subList(0, columns.size()).equals(columns);
+        }
+
+        @Override
+        public String toString() {
+            return table + "(" + String.join(", ", columns) + ")";
+        }
+    }
+}
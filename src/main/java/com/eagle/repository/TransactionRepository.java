@@ -1,10 +1,72 @@
 package com.eagle.repository;
 
+import com.eagle.dtos.IdempotencyRecord;
+import com.eagle.dtos.StatementLine;
+import com.eagle.dtos.TransactionResponse;
 import com.eagle.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, String> {
 
-}
\ No newline at end of file
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.TransactionResponse(t.id, t.amount, t.currency, t.type, t.timestamp)
+            FROM Transaction t
+            WHERE t.account.id = :accountId
+            ORDER BY t.timestamp DESC, t.id DESC
+            """)
+    List<TransactionResponse> findLatest(@Param("accountId") String accountId, Limit limit);
+
+    // Keyset page: seeks straight to the cursor on idx_transaction_account_timestamp_id instead of skipping rows.
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.TransactionResponse(t.id, t.amount, t.currency, t.type, t.timestamp)
+            FROM Transaction t
+            WHERE t.account.id = :accountId
+              AND (t.timestamp < :timestamp OR (t.timestamp = :timestamp AND t.id < :id))
+            ORDER BY t.timestamp DESC, t.id DESC
+            """)
+    List<TransactionResponse> findBefore(@Param("accountId") String accountId,
+                                         @Param("timestamp") Instant timestamp,
+                                         @Param("id") String id,
+                                         Limit limit);
+
+    // Backed by a forward-only scrollable cursor; must be consumed and closed inside a transaction.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.eagle.dtos.StatementLine(t.id, t.amount, t.currency, t.type, t.reference, t.timestamp)
+            FROM Transaction t
+            WHERE t.account.id = :accountId
+            ORDER BY t.timestamp, t.id
+            """)
+    Stream<StatementLine> streamStatement(@Param("accountId") String accountId);
+
+    // Ids from the given ones that already have a row; lets the ledger journal replay idempotently.
+    @Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+    Set<String> findExistingIds(@Param("ids") Collection<String> ids);
+
+    // Plain read against uk_transaction_account_idempotency_key; replaying never touches the account row lock.
+    @Query("""
+            SELECT new com.eagle.dtos.IdempotencyRecord(t.account.user.userId, t.id, t.amount, t.currency, t.type, t.reference, t.timestamp)
+            FROM Transaction t
+            WHERE t.account.accountNumber = :accountNumber AND t.idempotencyKey = :key
+            """)
+    Optional<IdempotencyRecord> findIdempotencyRecord(@Param("accountNumber") String accountNumber,
+                                                      @Param("key") String key);
+}
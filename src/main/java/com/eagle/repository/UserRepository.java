@@ -1,9 +1,14 @@
 package com.eagle.repository;
 
+import com.eagle.dtos.UserResponse;
 import com.eagle.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,17 @@ public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByUserName(String userName);
 
     Optional<User> findByUserId(String userId);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.eagle.dtos.UserResponse(u.userId, u.userName, u.address.line1, u.address.line2,
+                u.address.line3, u.address.town, u.address.county, u.address.postcode, u.phoneNumber, u.email,
+                u.createdTimestamp, u.updatedTimestamp)
+            FROM User u
+            WHERE u.userId = :userId
+            """)
+    Optional<UserResponse> findResponseByUserId(@Param("userId") String userId);
+
+    @Query("SELECT u.userId FROM User u WHERE u.locked = true")
+    List<String> findLockedUserIds();
 }
@@ -1,13 +1,19 @@
 package com.eagle.security;
 
 import com.eagle.dtos.AuthResponse;
+import com.eagle.exceptions.InvalidRefreshTokenException;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -17,20 +23,54 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JWTService jwtService;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final UserDetailsService userDetailsService;
 
-    public AuthResponse authenticate(String userId,String password) {
+    public AuthResponse authenticate(String userId, String password, String clientAddress) {
         if (userId == null || userId.isBlank()) {
             throw new IllegalArgumentException("User ID cannot be blank");
         }
         if (password == null || password.isBlank()) {
             throw new IllegalArgumentException("Password cannot be blank");
         }
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(userId, password)
-        );
+        // Refused before the password is hashed, so brute force costs no hashing time.
+        loginThrottle.check(userId, clientAddress);
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(userId, password)
+            );
+        } catch (AuthenticationException ex) {
+            loginThrottle.recordFailure(userId, clientAddress);
+            throw ex;
+        }
+        loginThrottle.recordSuccess(userId);
         String authenticatedUserId = authentication.getName();
 
-        String token = jwtService.generateToken(authenticatedUserId);
-        return new AuthResponse(token);
+        String token = jwtService.generateToken(authenticatedUserId, authentication.getAuthorities());
+        return new AuthResponse(token, refreshTokenService.issue(authenticatedUserId));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and refresh token, without a password check.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw new IllegalArgumentException("Refresh token cannot be blank");
+        }
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        // Reloaded for the current authorities; a primary-key read, no hashing.
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(rotation.userId());
+        } catch (UsernameNotFoundException ex) {
+            throw new InvalidRefreshTokenException("User no longer exists");
+        }
+        if (!user.isAccountNonLocked()) {
+            throw new LockedException("User account is locked");
+        }
+        String token = jwtService.generateToken(user.getUsername(), user.getAuthorities());
+        return new AuthResponse(token, rotation.refreshToken());
     }
 }
\ No newline at end of file
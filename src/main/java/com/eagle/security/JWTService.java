@@ -1,56 +1,144 @@
 package com.eagle.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Issues and verifies access tokens.
+ * <p>
+ * The signing key and parser are built once. {@link #verify(String)} checks a token's signature
+ * and expiry once and caches the verified claims under the token's SHA-256 digest until the token
+ * expires, so a token seen again is verified with one hash lookup. The cache holds at most
+ * {@code jwt.cache.max-entries} tokens; when it is full, expired entries are swept and, if it is
+ * still full, new tokens are verified without being cached.
+ */
 @Service
 public class JWTService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public static final String ROLES_CLAIM = "roles";
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    private final long expiration;
+    private final int maxCachedTokens;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final ConcurrentMap<String, VerifiedClaims> verified = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private volatile long nextSweepAt;
+
+    public JWTService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expiration,
+                      @Value("${jwt.cache.max-entries:10000}") int maxCachedTokens) {
+        this.expiration = expiration;
+        this.maxCachedTokens = maxCachedTokens;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return signingKey;
     }
 
     public String generateToken(String username) {
+        return generateToken(username, List.of());
+    }
+
+    /**
+     * A token for {@code username} carrying its authorities in the {@value #ROLES_CLAIM} claim, so
+     * requests can be authenticated from the token alone.
+     */
+    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
         return Jwts.builder()
                 .subject(username)
+                .claim(ROLES_CLAIM, authorities.stream().map(GrantedAuthority::getAuthority).toList())
                 .issuedAt(Date.from(Instant.now()))
                 .expiration(Date.from(Instant.now().plusMillis(expiration)))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * The claims of a correctly signed, unexpired token.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, badly signed or expired
+     */
+    public Claims verify(String token) {
+        String digest = digest(token);
+        VerifiedClaims cached = verified.get(digest);
+        if (cached != null) {
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return cached.claims();
+            }
+            verified.remove(digest, cached);
+            throw new ExpiredJwtException(null, cached.claims(), "JWT expired");
+        }
+        cacheMisses.increment();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            remember(digest, new VerifiedClaims(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
+    }
+
+    /**
+     * The authorities carried in verified claims; tokens issued before the claim existed carry none.
+     */
+    public static List<GrantedAuthority> authorities(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+    }
+
     public String extractUsername(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return verify(token).getSubject();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+            return verify(token).getSubject().equals(userDetails.getUsername());
         } catch (Exception e) {
-            return false;  // Handle expired tokens explicitly
+            return false;  // Malformed, badly signed or expired
         }
     }
 
+    public long getCacheHitCount() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMissCount() {
+        return cacheMisses.sum();
+    }
+
+    int cacheSize() {
+        return verified.size();
+    }
+
     boolean isTokenExpired(String token) {
         try {
             return extractExpiration(token).before(new Date());
@@ -60,11 +148,32 @@ public class JWTService {
     }
 
     Date extractExpiration(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getExpiration();
+        return verify(token).getExpiration();
+    }
+
+    private void remember(String digest, VerifiedClaims claims) {
+        if (verified.size() >= maxCachedTokens) {
+            long now = System.currentTimeMillis();
+            // At most one sweep a second, so a flood of new tokens does not rescan a full cache each time.
+            if (now >= nextSweepAt) {
+                nextSweepAt = now + 1000;
+                verified.values().removeIf(entry -> entry.expiresAt() <= now);
+            }
+            if (verified.size() >= maxCachedTokens) {
+                return;
+            }
+        }
+        verified.put(digest, claims);
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
     }
-}
\ No newline at end of file
+
+    private record VerifiedClaims(Claims claims, long expiresAt) {}
+}
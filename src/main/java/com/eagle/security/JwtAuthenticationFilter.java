@@ -1,5 +1,7 @@
 package com.eagle.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,9 +9,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,12 +19,12 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JWTService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final UserRevocationRegistry revocationRegistry;
 
     public JwtAuthenticationFilter(JWTService jwtService,
-                                   UserDetailsService userDetailsService) {
+                                   UserRevocationRegistry revocationRegistry) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.revocationRegistry = revocationRegistry;
     }
 
     @Override
@@ -45,23 +44,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
         } else {
             final String jwt = authHeader.substring(7);
-            final String username = jwtService.extractUsername(jwt);
+            final Claims claims;
             try {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    var authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContext context = SecurityContextHolder.createEmptyContext();
-                    context.setAuthentication(authToken);
-                    SecurityContextHolder.setContext(context);
-                }
-            } catch (UsernameNotFoundException e) {
-                // Log the error but continue the filter chain
-                logger.error("User not found: " + username, e);
+                claims = jwtService.verify(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                // Malformed, badly signed or expired: continue unauthenticated
+                filterChain.doFilter(request, response);
+                return;
+            }
+            final String userId = claims.getSubject();
+            // Built from the verified claims alone; only locked or deleted users need a check.
+            if (!revocationRegistry.isRevoked(userId)) {
+                var authToken = new UsernamePasswordAuthenticationToken(
+                        userId,
+                        null,
+                        JWTService.authorities(claims)
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authToken);
+                SecurityContextHolder.setContext(context);
             }
             filterChain.doFilter(request, response);
         }
@@ -0,0 +1,88 @@
+package com.eagle.security;
+
+import com.eagle.exceptions.LoginThrottledException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts failed logins per user id and per client address in fixed windows of
+ * {@code window-seconds}. Once either count reaches its limit, further attempts are refused with
+ * {@link LoginThrottledException} until the window ends, before any password is hashed. A
+ * successful login clears the user's count but not the address's. At most {@code max-tracked}
+ * windows per kind are kept; expired ones are dropped when that is exceeded.
+ */
+@Component
+public class LoginThrottle {
+
+    private final int maxFailuresPerUser;
+    private final int maxFailuresPerAddress;
+    private final long windowNanos;
+    private final int maxTracked;
+    private final ConcurrentMap<String, Window> userFailures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Window> addressFailures = new ConcurrentHashMap<>();
+    private final LongAdder throttled = new LongAdder();
+
+    public LoginThrottle(@Value("${eagle.auth.throttle.max-failures-per-user:5}") int maxFailuresPerUser,
+                         @Value("${eagle.auth.throttle.max-failures-per-address:20}") int maxFailuresPerAddress,
+                         @Value("${eagle.auth.throttle.window-seconds:300}") long windowSeconds,
+                         @Value("${eagle.auth.throttle.max-tracked:100000}") int maxTracked) {
+        this.maxFailuresPerUser = maxFailuresPerUser;
+        this.maxFailuresPerAddress = maxFailuresPerAddress;
+        this.windowNanos = TimeUnit.SECONDS.toNanos(windowSeconds);
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * @throws LoginThrottledException if the user or the address has used up its failures for the window
+     */
+    public void check(String userId, String clientAddress) {
+        long now = System.nanoTime();
+        long retryAfterNanos = Math.max(
+                blockedFor(userFailures.get(userId), maxFailuresPerUser, now),
+                clientAddress == null ? 0 : blockedFor(addressFailures.get(clientAddress), maxFailuresPerAddress, now));
+        if (retryAfterNanos > 0) {
+            throttled.increment();
+            throw new LoginThrottledException("Too many failed login attempts",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos)));
+        }
+    }
+
+    public void recordFailure(String userId, String clientAddress) {
+        long now = System.nanoTime();
+        increment(userFailures, userId, now);
+        if (clientAddress != null) {
+            increment(addressFailures, clientAddress, now);
+        }
+    }
+
+    public void recordSuccess(String userId) {
+        userFailures.remove(userId);
+    }
+
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    private long blockedFor(Window window, int maxFailures, long now) {
+        if (window == null || window.failures() < maxFailures) {
+            return 0;
+        }
+        return Math.max(0, window.startedAt() + windowNanos - now);
+    }
+
+    private void increment(ConcurrentMap<String, Window> failures, String key, long now) {
+        failures.compute(key, (k, window) -> window == null || now - window.startedAt() >= windowNanos
+                ? new Window(now, 1)
+                : new Window(window.startedAt(), window.failures() + 1));
+        if (failures.size() > maxTracked) {
+            failures.values().removeIf(window -> now - window.startedAt() >= windowNanos);
+        }
+    }
+
+    private record Window(long startedAt, int failures) {}
+}
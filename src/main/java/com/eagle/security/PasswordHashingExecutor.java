@@ -0,0 +1,96 @@
+package com.eagle.security;
+
+import com.eagle.exceptions.PasswordHashingBusyException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small dedicated pool so a burst of logins or sign-ups cannot take
+ * every core away from transaction traffic.
+ * <p>
+ * {@code threads} workers (by default half the cores) take hashes from a queue of at most
+ * {@code queue-capacity}. A hash that does not fit is refused straight away with
+ * {@link PasswordHashingBusyException} instead of waiting behind the backlog. The time spent
+ * queued and the time spent hashing are both recorded.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public PasswordHashingExecutor(@Value("${eagle.auth.hashing.threads:0}") int threads,
+                                   @Value("${eagle.auth.hashing.queue-capacity:64}") int queueCapacity) {
+        int workers = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    public <T> T hash(Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitNanos.add(startedAt - queuedAt);
+                try {
+                    return work.get();
+                } finally {
+                    hashNanos.add(System.nanoTime() - startedAt);
+                    hashes.increment();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejections.increment();
+            throw new PasswordHashingBusyException("Password hashing queue is full", 1);
+        }
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing", 1);
+        }
+    }
+
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    public long getTotalHashNanos() {
+        return hashNanos.sum();
+    }
+
+    public long getTotalQueueWaitNanos() {
+        return queueWaitNanos.sum();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.eagle.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the application's {@link PasswordEncoder}: a {@link DelegatingPasswordEncoder} that
+ * writes {@code {bcrypt}}-prefixed hashes at the current work factor and still verifies the
+ * unprefixed BCrypt hashes stored before it existed. Another algorithm can be added under its
+ * own id without invalidating stored hashes.
+ * <p>
+ * With no fixed {@code bcrypt-strength}, the strength is calibrated at startup: one hash at
+ * {@link #MIN_BCRYPT_STRENGTH} is timed and the strength raised one step, doubling the cost, for
+ * as long as the hash stays within {@code target-millis}, up to {@code max-bcrypt-strength}. It is
+ * never lowered below the BCrypt default. {@link PasswordEncoder#upgradeEncoding} reports stored
+ * hashes that are unprefixed or weaker, and they are rehashed on the user's next successful login.
+ */
+@Slf4j
+public final class PasswordHashingPolicy {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final int MIN_BCRYPT_STRENGTH = 10;
+
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private PasswordHashingPolicy() {
+    }
+
+    public static PasswordEncoder encoder(int strength) {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new BCryptPasswordEncoder(strength)));
+        // Hashes stored before the prefix was introduced; reporting them for upgrade moves them onto it.
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    /**
+     * The configured strength, or when it is not positive, one calibrated on this machine.
+     */
+    public static int bcryptStrength(int configuredStrength, long targetMillis, int maxStrength) {
+        if (configuredStrength > 0) {
+            return configuredStrength;
+        }
+        long measuredNanos = timeHash(MIN_BCRYPT_STRENGTH);
+        int strength = calibratedStrength(measuredNanos, TimeUnit.MILLISECONDS.toNanos(targetMillis), maxStrength);
+        log.info("BCrypt strength {} calibrated for {} ms per hash ({} ms at strength {})",
+                strength, targetMillis, TimeUnit.NANOSECONDS.toMillis(measuredNanos), MIN_BCRYPT_STRENGTH);
+        return strength;
+    }
+
+    /**
+     * The highest strength whose hash time, doubling with each step from {@code nanosAtMin},
+     * stays within the target.
+     */
+    static int calibratedStrength(long nanosAtMin, long targetNanos, int maxStrength) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        long nanos = Math.max(1, nanosAtMin);
+        while (strength < maxStrength && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * Best of a few hashes, the first of which also warms up the code.
+     */
+    public static long timeHash(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long startedAt = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - startedAt);
+        }
+        return best;
+    }
+}
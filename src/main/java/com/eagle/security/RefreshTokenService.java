@@ -0,0 +1,158 @@
+package com.eagle.security;
+
+import com.eagle.entity.RefreshToken;
+import com.eagle.exceptions.InvalidRefreshTokenException;
+import com.eagle.repository.RefreshTokenRepository;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issues refresh tokens at login and exchanges them for new ones, so a client can renew its
+ * access token without sending its password again.
+ * <p>
+ * A refresh token is 256 random bits. Only its SHA-256 digest is stored, in the indexed
+ * {@code refresh_token} table, and the unexpired tokens seen recently are kept in memory under
+ * that digest so a refresh usually skips the lookup. Each token can be used once. Using it issues
+ * a new token in the same family, valid for {@code jwt.refresh.ttl-seconds} but never past the
+ * family's {@code jwt.refresh.max-lifetime-seconds}. If a token is presented after it was used,
+ * it has leaked or been replayed, and every token in its family is revoked.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRevocationRegistry revocationRegistry;
+    private final Duration ttl;
+    private final Duration maxLifetime;
+    private final int maxCachedTokens;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentMap<String, Grant> grants = new ConcurrentHashMap<>();
+    private final LongAdder rotations = new LongAdder();
+    private final LongAdder reuses = new LongAdder();
+    private volatile long nextSweepAt;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRevocationRegistry revocationRegistry,
+                               @Value("${jwt.refresh.ttl-seconds:1209600}") long ttlSeconds,
+                               @Value("${jwt.refresh.max-lifetime-seconds:7776000}") long maxLifetimeSeconds,
+                               @Value("${jwt.refresh.cache.max-entries:10000}") int maxCachedTokens) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationRegistry = revocationRegistry;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxLifetime = Duration.ofSeconds(maxLifetimeSeconds);
+        this.maxCachedTokens = maxCachedTokens;
+    }
+
+    /**
+     * Starts a new token family for a user who has just logged in.
+     */
+    @Transactional
+    public String issue(String userId) {
+        Instant now = Instant.now();
+        return save(UUID.randomUUID().toString(), userId, now, now.plus(maxLifetime));
+    }
+
+    /**
+     * Uses up {@code token} and returns its replacement.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked, already used
+     *                                      or belongs to a locked or deleted user
+     */
+    @Transactional(dontRollbackOn = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        String digest = JWTService.digest(token);
+        Grant grant = grants.get(digest);
+        if (grant == null) {
+            grant = refreshTokenRepository.findByTokenHash(digest)
+                    .map(Grant::new)
+                    .orElseThrow(() -> new InvalidRefreshTokenException("Unknown refresh token"));
+        }
+        Instant now = Instant.now();
+        if (!grant.expiresAt().isAfter(now)) {
+            grants.remove(digest, grant);
+            throw new InvalidRefreshTokenException("Refresh token expired");
+        }
+        if (revocationRegistry.isRevoked(grant.userId())) {
+            revokeFamily(grant.familyId());
+            throw new InvalidRefreshTokenException("User is locked or deleted");
+        }
+        if (refreshTokenRepository.markRotated(grant.id(), now) != 1) {
+            reuses.increment();
+            log.warn("Refresh token reused for user {}, revoking token family {}", grant.userId(), grant.familyId());
+            revokeFamily(grant.familyId());
+            throw new InvalidRefreshTokenException("Refresh token already used");
+        }
+        grants.remove(digest, grant);
+        rotations.increment();
+        return new Rotation(grant.userId(), save(grant.familyId(), grant.userId(), now, grant.familyExpiresAt()));
+    }
+
+    public long getRotationCount() {
+        return rotations.sum();
+    }
+
+    public long getReuseCount() {
+        return reuses.sum();
+    }
+
+    int cacheSize() {
+        return grants.size();
+    }
+
+    private String save(String familyId, String userId, Instant now, Instant familyExpiresAt) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant expiresAt = now.plus(ttl).isBefore(familyExpiresAt) ? now.plus(ttl) : familyExpiresAt;
+        RefreshToken saved = refreshTokenRepository.save(new RefreshToken(
+                JWTService.digest(token), familyId, userId, now, expiresAt, familyExpiresAt));
+        remember(saved.getTokenHash(), new Grant(saved));
+        return token;
+    }
+
+    private void revokeFamily(String familyId) {
+        refreshTokenRepository.revokeFamily(familyId);
+        grants.values().removeIf(grant -> grant.familyId().equals(familyId));
+    }
+
+    private void remember(String digest, Grant grant) {
+        if (grants.size() >= maxCachedTokens) {
+            Instant now = Instant.now();
+            // At most one sweep a second, as in JWTService.
+            if (now.toEpochMilli() >= nextSweepAt) {
+                nextSweepAt = now.toEpochMilli() + 1000;
+                grants.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+            }
+            if (grants.size() >= maxCachedTokens) {
+                return;
+            }
+        }
+        grants.put(digest, grant);
+    }
+
+    public record Rotation(String userId, String refreshToken) {}
+
+    /**
+     * What a refresh needs from the stored row. Whether the token is still unused is not cached:
+     * the conditional update in {@link RefreshTokenRepository#markRotated} decides that.
+     */
+    private record Grant(String id, String familyId, String userId, Instant expiresAt, Instant familyExpiresAt) {
+        Grant(RefreshToken token) {
+            this(token.getId(), token.getFamilyId(), token.getUserId(), token.getExpiresAt(), token.getFamilyExpiresAt());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.eagle.security;
 
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -11,7 +13,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,11 +24,17 @@ public class SecurityConfig {
 
     private final JWTService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserRevocationRegistry revocationRegistry;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     public SecurityConfig(JWTService jwtService,
-                          UserDetailsService userDetailsService) {
+                          UserDetailsService userDetailsService,
+                          UserRevocationRegistry revocationRegistry,
+                          PasswordHashingExecutor passwordHashingExecutor) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocationRegistry = revocationRegistry;
+        this.passwordHashingExecutor = passwordHashingExecutor;
     }
 
     @Bean
@@ -39,8 +46,10 @@ public class SecurityConfig {
                 )
                 .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches resume a request that was already authorized, e.g. a long-poll.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(HttpMethod.POST, "/v1/user").permitAll()
-                        .requestMatchers("/v1/auth").permitAll()
+                        .requestMatchers("/v1/auth", "/v1/auth/refresh").permitAll()
                         .anyRequest().authenticated()
                 );
         return http.build();
@@ -48,24 +57,28 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter(jwtService, userDetailsService);
+        return new JwtAuthenticationFilter(jwtService, revocationRegistry);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
+    public AuthenticationManager authenticationManager(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = http.getSharedObject(
                 AuthenticationManagerBuilder.class
         );
 
+        // UserService is also the UserDetailsPasswordService, so outdated hashes are replaced on login.
         authenticationManagerBuilder
                 .userDetailsService(userDetailsService)
-                .passwordEncoder(passwordEncoder());
+                .passwordEncoder(passwordEncoder);
 
         return authenticationManagerBuilder.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${eagle.auth.hashing.bcrypt-strength:0}") int bcryptStrength,
+                                           @Value("${eagle.auth.hashing.target-millis:100}") long targetMillis,
+                                           @Value("${eagle.auth.hashing.max-bcrypt-strength:14}") int maxBcryptStrength) {
+        int strength = PasswordHashingPolicy.bcryptStrength(bcryptStrength, targetMillis, maxBcryptStrength);
+        return new BoundedPasswordEncoder(PasswordHashingPolicy.encoder(strength), passwordHashingExecutor);
     }
 }
\ No newline at end of file
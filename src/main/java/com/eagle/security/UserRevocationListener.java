@@ -0,0 +1,54 @@
+package com.eagle.security;
+
+import com.eagle.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps {@link UserRevocationRegistry} in step with the user table. Changes are applied once the
+ * surrounding transaction commits, so a rolled-back unlock never re-enables a user's tokens.
+ */
+public class UserRevocationListener {
+
+    private final UserRevocationRegistry registry;
+
+    public UserRevocationListener(UserRevocationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSave(User user) {
+        String userId = user.getUserId();
+        boolean locked = user.isLocked();
+        afterCommit(() -> {
+            if (locked) {
+                registry.locked(userId);
+            } else {
+                registry.unlocked(userId);
+            }
+        });
+    }
+
+    @PostRemove
+    void onDelete(User user) {
+        String userId = user.getUserId();
+        afterCommit(() -> registry.deleted(userId));
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
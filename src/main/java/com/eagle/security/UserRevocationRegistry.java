@@ -0,0 +1,73 @@
+package com.eagle.security;
+
+import com.eagle.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Users whose access tokens must stop working before they expire, checked by
+ * {@link JwtAuthenticationFilter} in place of loading the user on every request.
+ * <p>
+ * Locked users stay revoked until they are unlocked. Deleted users are revoked for one token
+ * lifetime ({@code jwt.expiration}), after which every token issued to them has expired anyway.
+ * The locked users are loaded at startup, before the web server accepts requests, and
+ * {@link UserRevocationListener} keeps the set current as users are saved and deleted.
+ * <p>
+ * The repository is injected lazily: Hibernate creates the listener, and with it this registry,
+ * while the entity manager factory the repository needs is still being built.
+ */
+@Slf4j
+@Component
+public class UserRevocationRegistry implements SmartInitializingSingleton {
+
+    private final UserRepository userRepository;
+    private final long tokenLifetimeMillis;
+    private final ConcurrentMap<String, Long> revokedUntil = new ConcurrentHashMap<>();
+
+    public UserRevocationRegistry(@Lazy UserRepository userRepository,
+                                  @Value("${jwt.expiration}") long tokenLifetimeMillis) {
+        this.userRepository = userRepository;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    public void load() {
+        List<String> locked = userRepository.findLockedUserIds();
+        locked.forEach(this::locked);
+        log.info("Loaded {} locked users into the revocation set", locked.size());
+    }
+
+    public boolean isRevoked(String userId) {
+        Long until = revokedUntil.get(userId);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    public void locked(String userId) {
+        revokedUntil.put(userId, Long.MAX_VALUE);
+    }
+
+    public void unlocked(String userId) {
+        revokedUntil.remove(userId);
+    }
+
+    public void deleted(String userId) {
+        long now = System.currentTimeMillis();
+        revokedUntil.values().removeIf(until -> until <= now);
+        revokedUntil.put(userId, now + tokenLifetimeMillis);
+    }
+
+    int size() {
+        return revokedUntil.size();
+    }
+}
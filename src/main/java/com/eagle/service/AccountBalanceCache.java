@@ -0,0 +1,185 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountResponse;
+import com.eagle.entity.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves {@code GET /v1/accounts/{accountNumber}} from memory.
+ * <p>
+ * Entries are keyed by account number and hold the account as last read or written together with
+ * its row version. Ledger writes on this instance replace the entry once their database
+ * transaction commits, and an entry is only ever replaced by one with a higher version, so a slow
+ * reader or a late commit can never put an older balance back. Writes this instance cannot version,
+ * such as striped accounts or the sharded engine, leave an invalidation marker instead, which turns
+ * away any read that started before it. Entries expire after {@code ttl-seconds}, which bounds how
+ * long a write made by another instance can go unseen. When more than {@code max-entries} are held,
+ * expired entries are dropped and then the oldest tenth.
+ */
+@Component
+public class AccountBalanceCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder staleWrites = new LongAdder();
+
+    public AccountBalanceCache(@Value("${eagle.accounts.balance-cache.max-entries:100000}") int maxEntries,
+                               @Value("${eagle.accounts.balance-cache.ttl-seconds:10}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    /**
+     * The cached account, or null if it is not cached, has expired or was invalidated.
+     */
+    public Entry get(String accountNumber) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(accountNumber);
+        if (entry != null && entry.expiresAt() - now <= 0) {
+            if (entries.remove(accountNumber, entry)) {
+                expirations.increment();
+            }
+            entry = null;
+        }
+        if (entry == null || entry.account() == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Caches an account read from the database, unless a newer version is already cached or the
+     * account was invalidated after {@code readStartedAt}, a {@link System#nanoTime()} taken before
+     * the read.
+     */
+    public void put(String ownerUserId, AccountResponse account, long version, long readStartedAt) {
+        Entry offered = new Entry(ownerUserId, account, version, readStartedAt, System.nanoTime() + ttlNanos);
+        if (entries.merge(account.getAccountNumber(), offered, AccountBalanceCache::newer) != offered) {
+            staleWrites.increment();
+        }
+        if (entries.size() > maxEntries) {
+            shrink();
+        }
+    }
+
+    /**
+     * Caches the account as flushed once the current transaction commits; nothing if it rolls back.
+     * Striped accounts are evicted instead, as stripe writes do not bump the account's version.
+     */
+    public void updateAfterCommit(Account account) {
+        if (account.isStriped()) {
+            evictAfterCommit(account.getAccountNumber());
+            return;
+        }
+        String ownerUserId = account.getUser().getUserId();
+        AccountResponse response = AccountService.toResponse(account, account.getBalance());
+        long version = account.getVersion();
+        afterCommit(() -> put(ownerUserId, response, version, System.nanoTime()));
+    }
+
+    public void evictAfterCommit(String accountNumber) {
+        afterCommit(() -> evict(accountNumber));
+    }
+
+    /**
+     * Drops the cached account and turns away reads of it that started before now.
+     */
+    public void evict(String accountNumber) {
+        long now = System.nanoTime();
+        entries.put(accountNumber, new Entry(null, null, 0, now, now + ttlNanos));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirations.sum();
+    }
+
+    public long getStaleWriteCount() {
+        return staleWrites.sum();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void shrink() {
+        long now = System.nanoTime();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        expirations.add(Math.max(0, before - entries.size()));
+        int excess = entries.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        // Dropping a tenth at a time keeps the sort off the path of most puts.
+        List<Map.Entry<String, Entry>> oldest = entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(cached -> cached.getValue().readAt()))
+                .limit(Math.max(excess, maxEntries / 10))
+                .toList();
+        for (Map.Entry<String, Entry> cached : oldest) {
+            if (entries.remove(cached.getKey(), cached.getValue())) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static Entry newer(Entry cached, Entry offered) {
+        if (cached.account() == null) {
+            return offered.readAt() - cached.readAt() > 0 ? offered : cached;
+        }
+        return offered.version() >= cached.version() ? offered : cached;
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    /**
+     * An account as read at {@code readAt}, or an invalidation marker made then if {@code account} is null.
+     */
+    public record Entry(String ownerUserId, AccountResponse account, long version, long readAt, long expiresAt) {}
+}
@@ -0,0 +1,98 @@
+package com.eagle.service;
+
+import com.eagle.entity.AccountSequence;
+import com.eagle.entity.SortCode;
+import com.eagle.repository.AccountSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out account numbers from blocks reserved in the database, so creating an account
+ * normally needs no sequence round-trip.
+ * <p>
+ * Each {@code NEXTVAL('acc_seq')} reserves {@link AccountSequence#BLOCK_SIZE} consecutive
+ * numbers for this instance, which then gives them out with one atomic increment. Only the
+ * caller that finds the block used up takes the lock and fetches the next one; the others wait
+ * for it and carry on. Numbers left in a block when the instance stops are never used.
+ * <p>
+ * The numbers run across the {@link SortCode} branches in declaration order, a million per
+ * branch: number {@code n} is in branch {@code n / 1,000,000} and its account number is that
+ * branch's prefix followed by {@code n % 1,000,000} as six digits. Numbers ending in
+ * {@code 000000} are skipped, as the first branch always has.
+ */
+@Slf4j
+@Component
+public class AccountNumberAllocator {
+
+    private static final long CAPACITY = (long) SortCode.values().length * SortCode.ACCOUNTS_PER_BRANCH;
+
+    private final AccountSequenceRepository accountSequenceRepository;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private final LongAdder blocks = new LongAdder();
+    private volatile Block current = new Block(0, 0);
+
+    public AccountNumberAllocator(AccountSequenceRepository accountSequenceRepository) {
+        this.accountSequenceRepository = accountSequenceRepository;
+    }
+
+    /**
+     * @throws IllegalStateException once every branch has run out of account numbers
+     */
+    public AccountNumber next() {
+        while (true) {
+            Block block = current;
+            long number = block.next.getAndIncrement();
+            if (number < block.end) {
+                if (number % SortCode.ACCOUNTS_PER_BRANCH == 0) {
+                    continue;
+                }
+                return toAccountNumber(number);
+            }
+            refill(block);
+        }
+    }
+
+    public long getBlockCount() {
+        return blocks.sum();
+    }
+
+    static AccountNumber toAccountNumber(long number) {
+        if (number >= CAPACITY) {
+            throw new IllegalStateException("Account numbers exhausted in all " + SortCode.values().length + " branches");
+        }
+        SortCode sortCode = SortCode.values()[(int) (number / SortCode.ACCOUNTS_PER_BRANCH)];
+        return new AccountNumber(sortCode,
+                sortCode.accountPrefix + String.format("%06d", number % SortCode.ACCOUNTS_PER_BRANCH));
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Someone else may have fetched a block while we waited for the lock.
+            if (current == exhausted) {
+                long start = accountSequenceRepository.getNextSequenceValue();
+                current = new Block(start, start + AccountSequence.BLOCK_SIZE);
+                blocks.increment();
+                log.debug("Reserved account numbers {} to {}", start, start + AccountSequence.BLOCK_SIZE - 1);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    public record AccountNumber(SortCode sortCode, String accountNumber) {}
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
@@ -2,32 +2,45 @@ package com.eagle.service;
 
 import com.eagle.entity.Account;
 import com.eagle.entity.Currency;
-import com.eagle.entity.SortCode;
+import com.eagle.entity.Money;
 import com.eagle.entity.User;
+import com.eagle.dtos.AccountResponse;
+import com.eagle.dtos.AccountView;
 import com.eagle.dtos.CreateAccountRequest;
+import com.eagle.dtos.ListAccountsResponse;
+import com.eagle.exceptions.AccountNotFoundException;
 import com.eagle.repository.AccountRepository;
-import com.eagle.repository.AccountSequenceRepository;
 import com.eagle.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
 
 @Slf4j
 @Service
 public class AccountService {
 
-    public final static String ACCOUNT_PREFIX = "01";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
 
-    private final AccountSequenceRepository accountSequenceRepository;
+    private final AccountNumberAllocator accountNumberAllocator;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
+    private final StripedBalanceLedger stripedBalanceLedger;
+    private final AccountBalanceCache balanceCache;
 
-    public AccountService(AccountSequenceRepository accountSequenceRepository, AccountRepository accountRepository, UserRepository userRepository) {
-        this.accountSequenceRepository = accountSequenceRepository;
+    public AccountService(AccountNumberAllocator accountNumberAllocator, AccountRepository accountRepository, UserRepository userRepository,
+                          StripedBalanceLedger stripedBalanceLedger, AccountBalanceCache balanceCache) {
+        this.accountNumberAllocator = accountNumberAllocator;
         this.accountRepository = accountRepository;
         this.userRepository = userRepository;
+        this.stripedBalanceLedger = stripedBalanceLedger;
+        this.balanceCache = balanceCache;
     }
 
     public Account create(CreateAccountRequest createAccountRequest) {
@@ -35,21 +48,103 @@ public class AccountService {
         final String userId = SecurityContextHolder.getContext().getAuthentication().getName();
         User user = userRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("User was not found ID: " + userId));
-        //max 1 million accounts
-        Long nextSequenceValue = accountSequenceRepository.getNextSequenceValue();
-        if (nextSequenceValue >= 1000000) {
-            throw new IllegalStateException();
-        }
-        String accNo = ACCOUNT_PREFIX + String.format("%06d", nextSequenceValue);
+        // A million accounts per branch, see AccountNumberAllocator
+        AccountNumberAllocator.AccountNumber accNo = accountNumberAllocator.next();
         Account account = new Account(
                 user,
-                accNo,
-                SortCode.Branch1,
+                accNo.accountNumber(),
+                accNo.sortCode(),
                 createAccountRequest.getName(),
                 createAccountRequest.getAccountType(),
-                new BigDecimal(0),
+                0L,
                 Currency.GBP
         );
         return accountRepository.save(account);
     }
+
+    /**
+     * The caller's account with its current balance, from {@link AccountBalanceCache} when it holds it.
+     * A miss reads only the columns the response needs, and a hit opens no transaction at all.
+     * Striped accounts are always read from the database.
+     */
+    public AccountResponse get(String accountNumber) {
+        final String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        AccountBalanceCache.Entry cached = balanceCache.get(accountNumber);
+        if (cached != null) {
+            verifyOwner(cached.ownerUserId(), userId);
+            return cached.account();
+        }
+        long readStartedAt = System.nanoTime();
+        AccountView account = accountRepository.findViewByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        verifyOwner(account.ownerUserId(), userId);
+        AccountResponse response = toResponse(account, stripedBalanceLedger.balanceOf(account));
+        if (!account.isStriped()) {
+            balanceCache.put(userId, response, account.version(), readStartedAt);
+        }
+        return response;
+    }
+
+    /**
+     * A page of the caller's accounts, oldest first, in one query. Balances are only included when
+     * asked for; striped accounts then add a single query for the stripes of the whole page.
+     */
+    public ListAccountsResponse list(String cursor, int limit, boolean includeBalance) {
+        TransactionCursor position = cursor == null ? null : TransactionCursor.decode(cursor);
+        final String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        Limit fetchSize = Limit.of(pageSize + 1);
+        List<AccountView> rows = position == null
+                ? accountRepository.findOwned(userId, fetchSize)
+                : accountRepository.findOwnedAfter(userId, position.timestamp(), position.id(), fetchSize);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            AccountView last = rows.get(pageSize - 1);
+            nextCursor = new TransactionCursor(last.createdTimestamp(), last.id()).encode();
+        }
+        Map<String, Long> balances = includeBalance ? stripedBalanceLedger.balancesOf(rows) : Map.of();
+        List<AccountResponse> accounts = rows.stream()
+                .map(account -> toResponse(account, balances.get(account.id())))
+                .toList();
+        return new ListAccountsResponse(accounts, nextCursor);
+    }
+
+    public static AccountResponse toResponse(Account account, long balance) {
+        return new AccountResponse(
+                account.getAccountNumber(),
+                account.getSortCode(),
+                account.getName(),
+                account.getAccountType(),
+                Money.toDecimal(balance),
+                account.getCurrency(),
+                account.getCreateTimeStamp(),
+                account.getUpdateTimeStamp()
+        );
+    }
+
+    /**
+     * @param balance in minor units, or null to leave the balance out
+     */
+    public static AccountResponse toResponse(AccountView account, Long balance) {
+        return new AccountResponse(
+                account.accountNumber(),
+                account.sortCode(),
+                account.name(),
+                account.accountType(),
+                balance == null ? null : Money.toDecimal(balance),
+                account.currency(),
+                account.createdTimestamp(),
+                account.updatedTimestamp()
+        );
+    }
+
+    private static void verifyOwner(String ownerUserId, String userId) {
+        if (!ownerUserId.equals(userId)) {
+            throw new AccessDeniedException("User does not own this account");
+        }
+    }
 }
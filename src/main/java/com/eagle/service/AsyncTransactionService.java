@@ -0,0 +1,218 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.SubmissionResponse;
+import com.eagle.dtos.SubmissionStatus;
+import com.eagle.dtos.TransactionResponse;
+import com.eagle.exceptions.AccountBusyException;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.CurrencyMismatchException;
+import com.eagle.exceptions.IdempotencyKeyReuseException;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.exceptions.SubmissionNotFoundException;
+import com.eagle.exceptions.SubmissionQueueFullException;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolationException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accepts transactions for asynchronous posting with {@code mode=async}.
+ * <p>
+ * Each account maps to one of {@code shards} single-threaded executors, so an account's
+ * submissions are posted one at a time and in arrival order. Every shard has a bounded queue of
+ * {@code queue-capacity} submissions; when it is full the submission is refused with
+ * {@link SubmissionQueueFullException} rather than queued or handed to a new thread. Finished
+ * submissions can be looked up by tracking id for {@code retention-seconds}, and at most
+ * {@code max-tracked} of them are kept, oldest dropped first.
+ * <p>
+ * A submission that loses a lock conflict finishes as {@code conflict} at once, through
+ * {@link ConflictRetryPolicy#withoutBackoff}, rather than backing off on the shard thread and holding
+ * up every other account on that shard; the client may submit it again.
+ * <p>
+ * With {@code spring.threads.virtual.enabled} the shard workers are virtual threads, so a worker
+ * waiting on an account's row lock does not hold a platform thread.
+ */
+@Slf4j
+@Service
+public class AsyncTransactionService {
+
+    private final IdempotencyService idempotencyService;
+    private final ThreadPoolExecutor[] shards;
+    private final long retentionNanos;
+    private final int maxTracked;
+    private final Map<String, Submission> submissions = new ConcurrentHashMap<>();
+    private final Queue<Submission> finished = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    private final LongAdder rejections = new LongAdder();
+
+    public AsyncTransactionService(IdempotencyService idempotencyService,
+                                   @Value("${eagle.ledger.async.shards:4}") int shardCount,
+                                   @Value("${eagle.ledger.async.queue-capacity:1000}") int queueCapacity,
+                                   @Value("${eagle.ledger.async.retention-seconds:3600}") long retentionSeconds,
+                                   @Value("${eagle.ledger.async.max-tracked:100000}") int maxTracked,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.idempotencyService = idempotencyService;
+        this.retentionNanos = TimeUnit.SECONDS.toNanos(retentionSeconds);
+        this.maxTracked = maxTracked;
+        this.shards = new ThreadPoolExecutor[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            String name = "ledger-async-" + i;
+            ThreadFactory threadFactory = virtualThreads
+                    ? Thread.ofVirtual().name(name).factory()
+                    : Thread.ofPlatform().name(name).daemon().factory();
+            shards[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            shard.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    public Submission submit(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        purgeFinished();
+        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        Submission submission = new Submission(UUID.randomUUID().toString(), userId, accountNumber);
+        submissions.put(submission.trackingId, submission);
+        try {
+            shardFor(accountNumber).execute(new DelegatingSecurityContextRunnable(
+                    () -> run(submission, request, idempotencyKey)));
+        } catch (RejectedExecutionException ex) {
+            submissions.remove(submission.trackingId);
+            rejections.increment();
+            throw new SubmissionQueueFullException("Submission queue is full for account " + accountNumber, 1);
+        }
+        return submission;
+    }
+
+    public Submission find(String accountNumber, String trackingId) {
+        Submission submission = submissions.get(trackingId);
+        if (submission == null || !submission.accountNumber.equals(accountNumber)) {
+            throw new SubmissionNotFoundException(trackingId);
+        }
+        if (!submission.userId.equals(SecurityContextHolder.getContext().getAuthentication().getName())) {
+            throw new AccessDeniedException("User does not own this account");
+        }
+        return submission;
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    private ThreadPoolExecutor shardFor(String accountNumber) {
+        return shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+    }
+
+    private void run(Submission submission, CreateTransactionRequest request, String idempotencyKey) {
+        try {
+            TransactionResponse response = ConflictRetryPolicy.withoutBackoff(
+                    () -> idempotencyService.post(submission.accountNumber, request, idempotencyKey)).response();
+            submission.finish(SubmissionStatus.applied, response);
+        } catch (RuntimeException ex) {
+            SubmissionStatus status = statusOf(ex);
+            if (status == SubmissionStatus.failed) {
+                log.error("Async submission {} for account {} failed", submission.trackingId, submission.accountNumber, ex);
+            }
+            submission.finish(status, null);
+        }
+        finished.add(submission);
+        finishedCount.incrementAndGet();
+        submission.done.complete(submission);
+    }
+
+    private void purgeFinished() {
+        long now = System.nanoTime();
+        // Retention is the same for every submission, so the oldest finished ones are at the head.
+        Submission oldest;
+        while ((oldest = finished.peek()) != null
+                && (now - oldest.finishedAt > retentionNanos || finishedCount.get() > maxTracked)) {
+            if (finished.remove(oldest)) {
+                finishedCount.decrementAndGet();
+                submissions.remove(oldest.trackingId);
+            }
+        }
+    }
+
+    private static SubmissionStatus statusOf(RuntimeException ex) {
+        if (ex instanceof InsufficientFundsException) {
+            return SubmissionStatus.insufficient_funds;
+        }
+        if (ex instanceof CurrencyMismatchException) {
+            return SubmissionStatus.currency_mismatch;
+        }
+        if (ex instanceof AccountNotFoundException) {
+            return SubmissionStatus.account_not_found;
+        }
+        if (ex instanceof AccessDeniedException) {
+            return SubmissionStatus.forbidden;
+        }
+        if (ex instanceof ConcurrentTransactionException || ex instanceof ConcurrencyFailureException
+                || ex instanceof AccountBusyException) {
+            return SubmissionStatus.conflict;
+        }
+        if (ex instanceof ConstraintViolationException || ex instanceof IdempotencyKeyReuseException) {
+            return SubmissionStatus.invalid;
+        }
+        return SubmissionStatus.failed;
+    }
+
+    /**
+     * A transaction accepted for asynchronous posting. {@link #done()} completes once it has been
+     * applied or rejected.
+     */
+    public static final class Submission {
+
+        private final String trackingId;
+        private final String userId;
+        private final String accountNumber;
+        private final CompletableFuture<Submission> done = new CompletableFuture<>();
+        private volatile SubmissionStatus status = SubmissionStatus.pending;
+        private volatile TransactionResponse transaction;
+        private volatile long finishedAt;
+
+        Submission(String trackingId, String userId, String accountNumber) {
+            this.trackingId = trackingId;
+            this.userId = userId;
+            this.accountNumber = accountNumber;
+        }
+
+        public String getTrackingId() {
+            return trackingId;
+        }
+
+        public CompletableFuture<Submission> done() {
+            return done;
+        }
+
+        public SubmissionResponse toResponse() {
+            return new SubmissionResponse(trackingId, status, transaction);
+        }
+
+        private void finish(SubmissionStatus status, TransactionResponse transaction) {
+            this.transaction = transaction;
+            this.finishedAt = System.nanoTime();
+            this.status = status;
+        }
+    }
+}
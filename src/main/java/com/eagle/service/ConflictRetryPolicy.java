@@ -0,0 +1,151 @@
+package com.eagle.service;
+
+import com.eagle.exceptions.AccountBusyException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Retries ledger writes that lost a lock race (optimistic version clash, row lock timeout or
+ * deadlock) on the server instead of bouncing the conflict to the client.
+ * <p>
+ * Each retry sleeps for a random time below an exponentially growing cap, so requests that
+ * collided spread out instead of colliding again in lockstep. At most {@code account-budget}
+ * requests per account may be backing off at once; a conflict beyond that fails fast with
+ * {@link AccountBusyException}, since more retries against a saturated row only lengthen its
+ * queue. A request that runs out of attempts fails with {@link ConcurrentTransactionException}.
+ * <p>
+ * Work run through {@link #withoutBackoff(Supplier)} is not retried at all: its first conflict fails
+ * with {@link ConcurrentTransactionException}, for threads that serve many accounts in turn and
+ * must not sleep on one of them.
+ */
+@Slf4j
+@Component
+public class ConflictRetryPolicy {
+
+    private static final ThreadLocal<Boolean> NO_BACKOFF = new ThreadLocal<>();
+
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+    private final int accountBudget;
+    private final ConcurrentMap<String, Integer> retrying = new ConcurrentHashMap<>();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder budgetRejections = new LongAdder();
+
+    public ConflictRetryPolicy(@Value("${eagle.ledger.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${eagle.ledger.retry.base-backoff-ms:10}") long baseBackoffMillis,
+                               @Value("${eagle.ledger.retry.max-backoff-ms:1000}") long maxBackoffMillis,
+                               @Value("${eagle.ledger.retry.account-budget:20}") int accountBudget) {
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.accountBudget = accountBudget;
+    }
+
+    /**
+     * Runs {@code operation}, which must start its own database transaction, retrying it while it
+     * fails with a lock conflict on {@code accountNumber}.
+     */
+    public <T> T execute(String accountNumber, Supplier<T> operation) {
+        boolean holdsBudget = false;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return operation.get();
+                } catch (ConcurrencyFailureException | ConcurrentTransactionException ex) {
+                    conflicts.increment();
+                    if (NO_BACKOFF.get() != null) {
+                        throw new ConcurrentTransactionException("Account balance updated by another transaction", retryAfterSeconds());
+                    }
+                    if (attempt >= maxAttempts) {
+                        exhausted.increment();
+                        log.warn("Giving up on account {} after {} conflicting attempts", accountNumber, attempt);
+                        throw new ConcurrentTransactionException("Account balance updated by another transaction", retryAfterSeconds());
+                    }
+                    if (!holdsBudget) {
+                        if (!tryAcquireBudget(accountNumber)) {
+                            budgetRejections.increment();
+                            throw new AccountBusyException("Too many conflicting requests for account", retryAfterSeconds());
+                        }
+                        holdsBudget = true;
+                    }
+                    retries.increment();
+                    backoff(attempt);
+                }
+            }
+        } finally {
+            if (holdsBudget) {
+                releaseBudget(accountNumber);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code task} on this thread with every {@link #execute} inside it failing on its first
+     * conflict instead of sleeping and retrying.
+     */
+    public static <T> T withoutBackoff(Supplier<T> task) {
+        if (NO_BACKOFF.get() != null) {
+            return task.get();
+        }
+        NO_BACKOFF.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            NO_BACKOFF.remove();
+        }
+    }
+
+    public long getConflictCount() {
+        return conflicts.sum();
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getExhaustedCount() {
+        return exhausted.sum();
+    }
+
+    public long getBudgetRejectionCount() {
+        return budgetRejections.sum();
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTransactionException("Interrupted while retrying a conflicting transaction", retryAfterSeconds());
+        }
+    }
+
+    private boolean tryAcquireBudget(String accountNumber) {
+        if (retrying.merge(accountNumber, 1, Integer::sum) > accountBudget) {
+            releaseBudget(accountNumber);
+            return false;
+        }
+        return true;
+    }
+
+    private void releaseBudget(String accountNumber) {
+        retrying.computeIfPresent(accountNumber, (key, held) -> held == 1 ? null : held - 1);
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, (maxBackoffMillis + 999) / 1000);
+    }
+}
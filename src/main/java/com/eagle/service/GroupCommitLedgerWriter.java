@@ -0,0 +1,155 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent transaction requests into shared database commits.
+ * <p>
+ * Callers enqueue into a bounded queue and block on their own future. A single writer thread
+ * drains the queue in micro-batches of up to {@code max-batch-size} requests, waiting at most
+ * {@code max-linger-ms} for a batch to fill, and applies each batch through
+ * {@link TransactionService#commitGroup} so the whole batch pays for one commit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "eagle.ledger.engine", havingValue = "group-commit")
+public class GroupCommitLedgerWriter implements LedgerEngine {
+
+    private final TransactionService transactionService;
+    private final BlockingQueue<PendingWrite> queue;
+    private final int maxBatchSize;
+    private final long maxLingerNanos;
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public GroupCommitLedgerWriter(TransactionService transactionService,
+                                   @Value("${eagle.ledger.group-commit.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${eagle.ledger.group-commit.max-batch-size:200}") int maxBatchSize,
+                                   @Value("${eagle.ledger.group-commit.max-linger-ms:2}") long maxLingerMillis) {
+        this.transactionService = transactionService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writerThread = new Thread(this::drainLoop, "ledger-group-commit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    @Override
+    public Transaction post(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        PendingWrite write = new PendingWrite(new LedgerCommand(accountNumber, request, userId, idempotencyKey), new CompletableFuture<>());
+        if (!running || !queue.offer(write)) {
+            throw new ConcurrentTransactionException("Ledger writer is saturated");
+        }
+        try {
+            return write.result().get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTransactionException("Interrupted while waiting for ledger commit");
+        }
+    }
+
+    public long getCommitCount() {
+        return commits.get();
+    }
+
+    public long getWriteCount() {
+        return writes.get();
+    }
+
+    private void drainLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                commit(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (RuntimeException ex) {
+                log.error("Group commit writer failed", ex);
+                batch.forEach(write -> write.result().completeExceptionally(ex));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        List<LedgerOutcome> outcomes;
+        try {
+            outcomes = transactionService.commitGroup(batch.stream().map(PendingWrite::command).toList());
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(ex);
+                return;
+            }
+            // One write poisoned the shared commit; retry them individually so only it fails.
+            log.warn("Group commit of {} writes failed, retrying individually", batch.size(), ex);
+            for (PendingWrite write : batch) {
+                commit(List.of(write));
+            }
+            return;
+        }
+        commits.incrementAndGet();
+        writes.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            LedgerOutcome outcome = outcomes.get(i);
+            if (outcome.failure() != null) {
+                batch.get(i).result().completeExceptionally(outcome.failure());
+            } else {
+                batch.get(i).result().complete(outcome.transaction());
+            }
+        }
+    }
+
+    private record PendingWrite(LedgerCommand command, CompletableFuture<Transaction> result) {}
+}
@@ -0,0 +1,182 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.IdempotencyRecord;
+import com.eagle.dtos.TransactionResponse;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.IdempotencyKeyReuseException;
+import com.eagle.repository.TransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes POST transactions safe to retry when the client sends an {@code Idempotency-Key}.
+ * <p>
+ * Keys are scoped to the account. Recently used keys sit in a bounded in-memory index, oldest
+ * evicted first once {@code max-keys} is reached and dropped after {@code ttl-seconds}, so a retry
+ * is answered without a query and without taking the account lock. A key that has fallen out of
+ * the index is found again by a plain read on the unique (account, key) column, which is also
+ * what rejects a duplicate that races in from another instance. Duplicates arriving while the
+ * first request is still being written wait for its result instead of posting again. A key reused
+ * for a different amount, currency, type or reference is refused with
+ * {@link IdempotencyKeyReuseException} rather than answered with the first transaction.
+ * <p>
+ * The index is guarded by a {@link ReentrantLock} rather than {@code synchronized}: on Java 21 a
+ * virtual thread that waits for a contended monitor pins its carrier thread.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private final LedgerEngine ledgerEngine;
+    private final TransactionRepository transactionRepository;
+    private final long ttlNanos;
+    private final Map<String, IndexEntry> index;
+    private final ReentrantLock indexLock = new ReentrantLock();
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder replays = new LongAdder();
+
+    public IdempotencyService(LedgerEngine ledgerEngine,
+                              TransactionRepository transactionRepository,
+                              @Value("${eagle.idempotency.max-keys:100000}") int maxKeys,
+                              @Value("${eagle.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.ledgerEngine = ledgerEngine;
+        this.transactionRepository = transactionRepository;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.index = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IndexEntry> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    public Outcome post(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return new Outcome(TransactionService.toResponse(ledgerEngine.post(accountNumber, request)), false);
+        }
+        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        String scopedKey = accountNumber + ":" + idempotencyKey;
+
+        IdempotencyRecord indexed = lookup(scopedKey);
+        if (indexed != null) {
+            return replay(indexed, userId, request);
+        }
+
+        CompletableFuture<IdempotencyRecord> claim = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(scopedKey, claim);
+        if (running != null) {
+            return replay(await(running), userId, request);
+        }
+        try {
+            IdempotencyRecord stored = transactionRepository.findIdempotencyRecord(accountNumber, idempotencyKey).orElse(null);
+            Outcome outcome;
+            if (stored != null) {
+                outcome = replay(stored, userId, request);
+            } else {
+                try {
+                    Transaction posted = ledgerEngine.post(accountNumber, request, idempotencyKey);
+                    stored = new IdempotencyRecord(userId, TransactionService.toResponse(posted), posted.getReference());
+                    outcome = new Outcome(stored.response(), false);
+                } catch (DataIntegrityViolationException ex) {
+                    // Another instance committed the same key between our read and our insert.
+                    DataIntegrityViolationException violation = ex;
+                    stored = transactionRepository.findIdempotencyRecord(accountNumber, idempotencyKey)
+                            .orElseThrow(() -> violation);
+                    outcome = replay(stored, userId, request);
+                }
+            }
+            remember(scopedKey, stored);
+            claim.complete(stored);
+            return outcome;
+        } catch (RuntimeException ex) {
+            claim.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(scopedKey, claim);
+        }
+    }
+
+    public long getReplayCount() {
+        return replays.sum();
+    }
+
+    int indexSize() {
+        indexLock.lock();
+        try {
+            return index.size();
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private Outcome replay(IdempotencyRecord stored, String userId, CreateTransactionRequest request) {
+        if (!stored.userId().equals(userId)) {
+            throw new AccessDeniedException("User does not own this account");
+        }
+        if (!stored.matches(request)) {
+            throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different transaction");
+        }
+        replays.increment();
+        return new Outcome(stored.response(), true);
+    }
+
+    private IdempotencyRecord lookup(String scopedKey) {
+        long now = System.nanoTime();
+        indexLock.lock();
+        try {
+            // Insertion order with a single TTL means expired entries are always at the head.
+            Iterator<IndexEntry> entries = index.values().iterator();
+            while (entries.hasNext() && entries.next().expiresAt - now <= 0) {
+                entries.remove();
+            }
+            IndexEntry entry = index.get(scopedKey);
+            return entry == null ? null : entry.record;
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private void remember(String scopedKey, IdempotencyRecord stored) {
+        IndexEntry entry = new IndexEntry(stored, System.nanoTime() + ttlNanos);
+        indexLock.lock();
+        try {
+            index.putIfAbsent(scopedKey, entry);
+        } finally {
+            indexLock.unlock();
+        }
+    }
+
+    private static IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for duplicate request", ex);
+        }
+    }
+
+    public record Outcome(TransactionResponse response, boolean replayed) {}
+
+    private record IndexEntry(IdempotencyRecord record, long expiresAt) {}
+}
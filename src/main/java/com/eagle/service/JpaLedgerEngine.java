@@ -0,0 +1,29 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.entity.Transaction;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default engine: one locked database transaction per request through {@link TransactionService},
+ * retried on lock conflicts by {@link ConflictRetryPolicy}.
+ */
+@Component
+@ConditionalOnProperty(name = "eagle.ledger.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaLedgerEngine implements LedgerEngine {
+
+    private final TransactionService transactionService;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+
+    public JpaLedgerEngine(TransactionService transactionService, ConflictRetryPolicy conflictRetryPolicy) {
+        this.transactionService = transactionService;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+    }
+
+    @Override
+    public Transaction post(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        return conflictRetryPolicy.execute(accountNumber,
+                () -> transactionService.createTransaction(accountNumber, request, idempotencyKey));
+    }
+}
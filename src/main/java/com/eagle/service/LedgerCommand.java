@@ -0,0 +1,9 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+
+/**
+ * A transaction request captured together with the caller's identity, so it can be applied
+ * on a thread that does not carry the caller's security context.
+ */
+public record LedgerCommand(String accountNumber, CreateTransactionRequest request, String userId, String idempotencyKey) {}
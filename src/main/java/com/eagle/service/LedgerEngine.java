@@ -0,0 +1,29 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.entity.Transaction;
+
+/**
+ * Applies a single deposit or withdrawal for the current user. Exactly one engine is active,
+ * selected with {@code eagle.ledger.engine} ({@code jpa}, {@code group-commit} or {@code sharded}).
+ */
+public interface LedgerEngine {
+
+    /**
+     * @param idempotencyKey stored on the transaction row, where it is unique per account; may be null
+     */
+    Transaction post(String accountNumber, CreateTransactionRequest request, String idempotencyKey);
+
+    default Transaction post(String accountNumber, CreateTransactionRequest request) {
+        return post(accountNumber, request, null);
+    }
+
+    /**
+     * Called before an operation that writes balances without going through this engine, such as
+     * a batch, a transfer or striping an account.
+     *
+     * @throws com.eagle.exceptions.UnsupportedLedgerOperationException if this engine cannot allow it
+     */
+    default void checkBypass(String operation) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.eagle.service;
+
+import com.eagle.entity.Transaction;
+
+/**
+ * Result of one {@link LedgerCommand}: either the persisted transaction or the business
+ * exception the synchronous path would have thrown.
+ */
+public record LedgerOutcome(Transaction transaction, RuntimeException failure) {
+
+    public static LedgerOutcome applied(Transaction transaction) {
+        return new LedgerOutcome(transaction, null);
+    }
+
+    public static LedgerOutcome rejected(RuntimeException failure) {
+        return new LedgerOutcome(null, failure);
+    }
+}
@@ -0,0 +1,529 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.entity.Account;
+import com.eagle.entity.Money;
+import com.eagle.entity.TimeOrderedIds;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.CurrencyMismatchException;
+import com.eagle.exceptions.JournalRecordTooLargeException;
+import com.eagle.exceptions.UnsupportedLedgerOperationException;
+import com.eagle.journal.JournalRecord;
+import com.eagle.journal.LedgerJournal;
+import com.eagle.journal.LedgerJournalFactory;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.LedgerJdbcRepository;
+import com.eagle.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Lock-free ledger engine for hot accounts.
+ * <p>
+ * Account numbers are hash-partitioned onto a fixed number of shards. Each shard has a single
+ * applier thread that owns the balances of its accounts in memory, so {@link Account#deposit} and
+ * {@link Account#withdraw} run without row locks. Accepted records are appended to the shard's
+ * write-ahead journal and synced according to its fsync policy before callers are acknowledged;
+ * a second per-shard thread then writes them to the database in batches and advances the
+ * journal checkpoint. On start, records past each shard's checkpoint that never reached the
+ * database are replayed before any new write is accepted.
+ * <p>
+ * While this engine is active it owns the balances of every account it has touched, so all
+ * writes must go through it: batches, transfers and striping are refused, see
+ * {@link #checkBypass(String)}. Each shard keeps at most {@code max-cached-accounts} accounts,
+ * dropping the least recently used ones once everything written to them is in the database.
+ * <p>
+ * A shard stops taking writes if its journal fails or the database keeps failing a batch after
+ * {@value #PERSIST_ATTEMPTS} attempts; its records stay in the journal and are replayed on restart.
+ * Transactions get the same bean validation the JPA path runs on flush before they are journaled,
+ * so the database should never refuse one; if it still rejects a record on an integrity constraint,
+ * that record alone is dropped, see {@link #persistOrDrop}, rather than stopping the shard.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "eagle.ledger.engine", havingValue = "sharded")
+public class ShardedLedgerEngine implements LedgerEngine {
+
+    private static final int REPLAY_CHUNK_SIZE = 1000;
+    private static final int PERSIST_ATTEMPTS = 5;
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerJdbcRepository ledgerJdbcRepository;
+    private final Validator validator;
+    private final AccountBalanceCache balanceCache;
+    private final int maxBatchSize;
+    private final int maxCachedAccounts;
+    private final Shard[] shards;
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean accepting;
+
+    public ShardedLedgerEngine(AccountRepository accountRepository,
+                               TransactionRepository transactionRepository,
+                               LedgerJdbcRepository ledgerJdbcRepository,
+                               Validator validator,
+                               AccountBalanceCache balanceCache,
+                               LedgerJournalFactory journalFactory,
+                               @Value("${eagle.ledger.sharded.shards:4}") int shardCount,
+                               @Value("${eagle.ledger.sharded.queue-capacity:10000}") int queueCapacity,
+                               @Value("${eagle.ledger.sharded.max-batch-size:500}") int maxBatchSize,
+                               @Value("${eagle.ledger.sharded.max-cached-accounts:100000}") int maxCachedAccounts) throws IOException {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerJdbcRepository = ledgerJdbcRepository;
+        this.validator = validator;
+        this.balanceCache = balanceCache;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCachedAccounts = maxCachedAccounts;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity, journalFactory.open("shard-" + i));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        for (Shard shard : shards) {
+            replay(shard);
+        }
+        accepting = true;
+        for (Shard shard : shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Stops accepting writes, applies everything already queued and waits for it to reach the database.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        accepting = false;
+        for (Shard shard : shards) {
+            shard.stopApplying();
+        }
+        for (Shard shard : shards) {
+            shard.stopPersisting();
+        }
+    }
+
+    @Override
+    public Transaction post(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        PendingWrite write = new PendingWrite(new LedgerCommand(accountNumber, request, userId, idempotencyKey), new CompletableFuture<>());
+        Shard shard = shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+        if (!accepting || !shard.inbox.offer(write)) {
+            throw new ConcurrentTransactionException("Ledger shard is saturated");
+        }
+        try {
+            return write.result().get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentTransactionException("Interrupted while waiting for ledger shard");
+        }
+    }
+
+    /**
+     * Balances of accounts this engine has touched live in its shards, so a write that goes
+     * straight to the database would be overwritten or lost.
+     */
+    @Override
+    public void checkBypass(String operation) {
+        throw new UnsupportedLedgerOperationException(operation + " is not available with the sharded ledger engine");
+    }
+
+    public long getAppliedCount() {
+        return applied.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes journaled records the database is missing, e.g. after a crash between the journal
+     * sync and the persister's commit. Records whose transaction row exists are skipped, so a
+     * lagging checkpoint never applies a balance change twice.
+     */
+    private void replay(Shard shard) {
+        List<JournalRecord> records = shard.journal.unpersisted();
+        int replayed = 0;
+        for (int from = 0; from < records.size(); from += REPLAY_CHUNK_SIZE) {
+            List<JournalRecord> chunk = records.subList(from, Math.min(from + REPLAY_CHUNK_SIZE, records.size()));
+            Set<String> stored = transactionRepository.findExistingIds(chunk.stream().map(JournalRecord::transactionId).toList());
+            List<JournalRecord> missing = chunk.stream().filter(record -> !stored.contains(record.transactionId())).toList();
+            if (!missing.isEmpty()) {
+                replayed += missing.size() - persistOrDrop(shard.index, missing).size();
+            }
+        }
+        shard.journal.checkpoint(shard.journal.lastSequence());
+        if (!records.isEmpty()) {
+            log.info("Ledger shard {} replayed {} of {} journal records past the checkpoint", shard.index, replayed, records.size());
+        }
+    }
+
+    /**
+     * Writes the records in one batch or, if the database refuses it on an integrity constraint, one
+     * at a time, dropping those it refuses so they cannot hold back the rest of the batch or stop a
+     * replay on every start. Records already stored are skipped.
+     *
+     * @return the dropped records
+     */
+    private List<JournalRecord> persistOrDrop(int shardIndex, List<JournalRecord> records) {
+        try {
+            ledgerJdbcRepository.persist(records);
+            return List.of();
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Ledger shard {} batch of {} records refused, writing them one at a time", shardIndex, records.size(), ex);
+        }
+        List<JournalRecord> refused = new ArrayList<>();
+        for (JournalRecord record : records) {
+            if (!transactionRepository.findExistingIds(List.of(record.transactionId())).isEmpty()) {
+                continue;
+            }
+            try {
+                ledgerJdbcRepository.persist(List.of(record));
+            } catch (DataIntegrityViolationException ex) {
+                log.error("Ledger shard {} dropping journal record {} for account {}, which the database refuses",
+                        shardIndex, record.transactionId(), record.accountId(), ex);
+                refused.add(record);
+            }
+        }
+        dropped.addAndGet(refused.size());
+        return refused;
+    }
+
+    private record PendingWrite(LedgerCommand command, CompletableFuture<Transaction> result) {}
+
+    private record JournaledBatch(List<JournalRecord> records, Set<String> accountNumbers, long lastSequence) {}
+
+    /**
+     * A shard's copy of an account and the last journal sequence written to it.
+     */
+    private static final class CachedAccount {
+
+        private final Account account;
+        private long lastSequence;
+
+        CachedAccount(Account account) {
+            this.account = account;
+        }
+    }
+
+    private final class Shard {
+
+        private final int index;
+        private final BlockingQueue<PendingWrite> inbox;
+        // At most an inbox's worth of records waiting for the database.
+        private final BlockingQueue<JournaledBatch> persistQueue;
+        private final LinkedHashMap<String, CachedAccount> accounts = new LinkedHashMap<>(16, 0.75f, true);
+        // Records the persister dropped, whose balance change the applier still has to take back.
+        private final Queue<JournalRecord> droppedRecords = new ConcurrentLinkedQueue<>();
+        private final LedgerJournal journal;
+        private volatile Exception failure;
+        private volatile long persistedSequence;
+        private volatile boolean applying;
+        private volatile boolean persisting;
+        private Thread applier;
+        private Thread persister;
+
+        Shard(int index, int queueCapacity, LedgerJournal journal) {
+            this.index = index;
+            this.inbox = new ArrayBlockingQueue<>(queueCapacity);
+            this.persistQueue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / maxBatchSize));
+            this.journal = journal;
+        }
+
+        void start() {
+            applying = true;
+            persisting = true;
+            applier = new Thread(this::applyLoop, "ledger-shard-" + index);
+            persister = new Thread(this::persistLoop, "ledger-shard-" + index + "-persist");
+            applier.setDaemon(true);
+            persister.setDaemon(true);
+            applier.start();
+            persister.start();
+        }
+
+        void stopApplying() throws InterruptedException {
+            applying = false;
+            applier.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        void stopPersisting() throws InterruptedException, IOException {
+            persisting = false;
+            persister.join(TimeUnit.SECONDS.toMillis(30));
+            journal.close();
+        }
+
+        private void applyLoop() {
+            List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+            while (applying || !inbox.isEmpty()) {
+                try {
+                    PendingWrite first = inbox.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        forceIdleJournal();
+                        continue;
+                    }
+                    batch.add(first);
+                    inbox.drainTo(batch, maxBatchSize - 1);
+                    if (failure != null) {
+                        IllegalStateException failed = new IllegalStateException("Ledger shard " + index + " has failed", failure);
+                        batch.forEach(write -> write.result().completeExceptionally(failed));
+                    } else {
+                        applyBatch(batch);
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    applying = false;
+                } catch (RuntimeException ex) {
+                    log.error("Ledger shard {} failed", index, ex);
+                    batch.forEach(write -> write.result().completeExceptionally(ex));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void applyBatch(List<PendingWrite> batch) {
+            revertDroppedRecords();
+            List<Transaction> accepted = new ArrayList<>(batch.size());
+            List<JournalRecord> records = new ArrayList<>(batch.size());
+            long lastSequence = 0;
+            Set<String> accountNumbers = new HashSet<>();
+            try {
+                for (PendingWrite write : batch) {
+                    Transaction transaction;
+                    try {
+                        transaction = apply(write.command());
+                    } catch (RuntimeException ex) {
+                        write.result().completeExceptionally(ex);
+                        continue;
+                    }
+                    JournalRecord record = toRecord(transaction);
+                    Account account = transaction.getAccount();
+                    try {
+                        lastSequence = journal.append(record);
+                    } catch (JournalRecordTooLargeException ex) {
+                        // Refused before anything was written, so only this write fails. It is taken back
+                        // before the next write is applied, which therefore never relies on its balance.
+                        account.setBalance(Money.subtract(account.getBalance(), record.signedAmount()));
+                        write.result().completeExceptionally(ex);
+                        continue;
+                    }
+                    accepted.add(transaction);
+                    records.add(record);
+                    accounts.get(account.getAccountNumber()).lastSequence = lastSequence;
+                    accountNumbers.add(account.getAccountNumber());
+                }
+                if (!records.isEmpty()) {
+                    journal.sync();
+                }
+            } catch (IOException ex) {
+                // Part of the batch may already be in the journal and will be replayed on restart, so the
+                // in-memory balances can no longer be trusted: fail-stop the shard rather than guess.
+                log.error("Ledger shard {} journal failed, rejecting further writes", index, ex);
+                failure = ex;
+                completeAccepted(batch, write -> write.result().completeExceptionally(new UncheckedIOException(ex)));
+                return;
+            }
+            if (records.isEmpty()) {
+                evictPersistedAccounts();
+                return;
+            }
+
+            // The batch is durable in the journal from here on, so its writes are acknowledged even if
+            // the persister has given up; they are then written to the database on replay.
+            try {
+                while (failure == null && !persistQueue.offer(new JournaledBatch(records, accountNumbers, lastSequence), 100, TimeUnit.MILLISECONDS)) {
+                    log.debug("Ledger shard {} waiting for its persister", index);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                applying = false;
+            }
+            applied.addAndGet(records.size());
+            Iterator<Transaction> transactions = accepted.iterator();
+            completeAccepted(batch, write -> write.result().complete(transactions.next()));
+            evictPersistedAccounts();
+        }
+
+        /**
+         * Takes the balance change of each dropped record back out of the cached account, so it
+         * matches the database again. An account no longer cached is reloaded from the database anyway.
+         */
+        private void revertDroppedRecords() {
+            JournalRecord record;
+            while ((record = droppedRecords.poll()) != null) {
+                for (CachedAccount cached : accounts.values()) {
+                    if (cached.account.getId().equals(record.accountId())) {
+                        cached.account.setBalance(Money.subtract(cached.account.getBalance(), record.signedAmount()));
+                        break;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Drops the least recently used accounts over {@code max-cached-accounts} whose writes have
+         * all reached the database, so reloading them reads the balance this shard last held.
+         */
+        private void evictPersistedAccounts() {
+            Iterator<CachedAccount> eldest = accounts.values().iterator();
+            while (accounts.size() > maxCachedAccounts && eldest.hasNext()) {
+                if (eldest.next().lastSequence <= persistedSequence) {
+                    eldest.remove();
+                }
+            }
+        }
+
+        private void forceIdleJournal() {
+            try {
+                journal.force();
+            } catch (IOException ex) {
+                log.error("Ledger shard {} failed to force its journal", index, ex);
+                failure = ex;
+            }
+        }
+
+        private void completeAccepted(List<PendingWrite> batch, Consumer<PendingWrite> action) {
+            for (PendingWrite write : batch) {
+                if (!write.result().isDone()) {
+                    action.accept(write);
+                }
+            }
+        }
+
+        private Transaction apply(LedgerCommand command) {
+            CreateTransactionRequest request = command.request();
+            CachedAccount cached = accounts.get(command.accountNumber());
+            if (cached == null) {
+                cached = new CachedAccount(accountRepository.findByAccountNumber(command.accountNumber())
+                        .orElseThrow(() -> new AccountNotFoundException(command.accountNumber())));
+                accounts.put(command.accountNumber(), cached);
+            }
+            Account account = cached.account;
+            if (!account.getUser().getUserId().equals(command.userId())) {
+                throw new AccessDeniedException("User does not own this account");
+            }
+            if (!request.getCurrency().equals(account.getCurrency())) {
+                throw new CurrencyMismatchException("Transaction currency does not match account currency");
+            }
+
+            long before = account.getBalance();
+            Transaction transaction = new Transaction(
+                    account,
+                    request.getType(),
+                    request.getCurrency(),
+                    Money.toMinorUnits(request.getAmount()),
+                    request.getReference()
+            );
+            transaction.setIdempotencyKey(command.idempotencyKey());
+            // Same bean validation the JPA path runs on flush: the amount and reference the database
+            // would refuse, then the @MoneyRange balance cap.
+            Set<ConstraintViolation<Transaction>> invalid = validator.validate(transaction);
+            if (!invalid.isEmpty()) {
+                throw new ConstraintViolationException(invalid);
+            }
+            TransactionService.apply(account, transaction);
+            Set<ConstraintViolation<Account>> violations = validator.validateProperty(account, "balance");
+            if (!violations.isEmpty()) {
+                account.setBalance(before);
+                throw new ConstraintViolationException(violations);
+            }
+            transaction.setId(TimeOrderedIds.next());
+            return transaction;
+        }
+
+        private JournalRecord toRecord(Transaction transaction) {
+            return new JournalRecord(
+                    transaction.getId(),
+                    transaction.getAccount().getId(),
+                    transaction.getType(),
+                    transaction.getCurrency(),
+                    transaction.getAmount(),
+                    transaction.getReference(),
+                    transaction.getIdempotencyKey(),
+                    transaction.getTimestamp()
+            );
+        }
+
+        private void persistLoop() {
+            List<JournalRecord> batch = new ArrayList<>();
+            List<JournaledBatch> drained = new ArrayList<>();
+            while (persisting || !persistQueue.isEmpty()) {
+                try {
+                    JournaledBatch first = persistQueue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    drained.add(first);
+                    persistQueue.drainTo(drained);
+                    drained.forEach(journaled -> batch.addAll(journaled.records()));
+                    if (!persistWithRetry(batch)) {
+                        // Later batches must not move the checkpoint past this one, which is left to replay.
+                        return;
+                    }
+                    long lastSequence = drained.get(drained.size() - 1).lastSequence();
+                    journal.checkpoint(lastSequence);
+                    persistedSequence = lastSequence;
+                    // The cache cannot version these rows, as the JDBC update bumps the version unseen.
+                    drained.forEach(journaled -> journaled.accountNumbers().forEach(balanceCache::evict));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    persisting = false;
+                } finally {
+                    batch.clear();
+                    drained.clear();
+                }
+            }
+        }
+
+        /**
+         * Writes the records, or fail-stops the shard once {@value #PERSIST_ATTEMPTS} attempts have
+         * failed; the records stay past the checkpoint and are replayed on restart.
+         */
+        private boolean persistWithRetry(List<JournalRecord> batch) throws InterruptedException {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    droppedRecords.addAll(persistOrDrop(index, batch));
+                    return true;
+                } catch (RuntimeException ex) {
+                    if (attempt >= PERSIST_ATTEMPTS) {
+                        log.error("Shard {} giving up on {} records, rejecting further writes; they will be replayed from the journal",
+                                index, batch.size(), ex);
+                        failure = ex;
+                        return false;
+                    }
+                    log.warn("Shard {} failed to persist {} records (attempt {})", index, batch.size(), attempt, ex);
+                    Thread.sleep(Math.min(100L * attempt, 5000L));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountView;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Account;
+import com.eagle.entity.AccountStripe;
+import com.eagle.entity.Money;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.AccountStripeRepository;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the balance of opted-in hot accounts, such as payroll or merchant settlement, in N
+ * {@link AccountStripe} rows instead of the account row, so concurrent deposits do not all queue
+ * on one row lock.
+ * <p>
+ * Stripe {@code i} may hold at most {@link #ceiling(int, int)}, and the ceilings add up to exactly
+ * {@link Account#MAX_BALANCE}. Keeping every stripe within {@code [0, ceiling]} therefore keeps the
+ * sum within the account's balance bounds without reading the other stripes. A write first tries
+ * one conditional update on the stripe picked by the calling thread, then on each other stripe;
+ * only if none can take it are all stripes locked in index order, checked as a whole and
+ * rebalanced evenly.
+ * <p>
+ * A successful conditional update keeps its stripe locked until the caller commits. A unit of work
+ * with several writes, such as a batch, a transfer or a group commit, may therefore already hold
+ * some stripe when it consolidates, and two of those can deadlock. The database breaks the
+ * deadlock or times out the lock, and {@link #apply} reports that as a
+ * {@link ConcurrentTransactionException}. The caller's transaction rolls back and can be retried
+ * like any other lock conflict.
+ */
+@Slf4j
+@Service
+public class StripedBalanceLedger {
+
+    private final AccountRepository accountRepository;
+    private final AccountStripeRepository accountStripeRepository;
+    private final Validator validator;
+    private final AccountBalanceCache balanceCache;
+
+    public StripedBalanceLedger(AccountRepository accountRepository,
+                                AccountStripeRepository accountStripeRepository,
+                                Validator validator,
+                                AccountBalanceCache balanceCache) {
+        this.accountRepository = accountRepository;
+        this.accountStripeRepository = accountStripeRepository;
+        this.validator = validator;
+        this.balanceCache = balanceCache;
+    }
+
+    /**
+     * Applies the transaction to the stripes of a striped account, within the caller's database transaction.
+     * A rejection changes no stripe and leaves the caller's transaction usable, so a batch can report
+     * it per item and carry on.
+     */
+    @Transactional(value = Transactional.TxType.MANDATORY,
+            dontRollbackOn = {InsufficientFundsException.class, ConstraintViolationException.class})
+    public void apply(Account account, Transaction transaction) {
+        long delta = transaction.getType() == TransactionType.withdraw
+                ? Money.negate(transaction.getAmount())
+                : transaction.getAmount();
+        BigDecimal deltaDecimal = Money.toDecimal(delta);
+        int stripes = account.getStripeCount();
+        int first = (int) Math.floorMod(Thread.currentThread().threadId(), (long) stripes);
+        try {
+            for (int i = 0; i < stripes; i++) {
+                int index = (first + i) % stripes;
+                if (accountStripeRepository.applyDelta(account.getId(), index, deltaDecimal, Money.toDecimal(ceiling(index, stripes))) == 1) {
+                    return;
+                }
+            }
+            consolidate(account, delta);
+        } catch (PessimisticLockingFailureException ex) {
+            throw new ConcurrentTransactionException("Account stripes locked by another transaction");
+        }
+    }
+
+    /**
+     * The account's balance in minor units, including its stripes.
+     */
+    public long balanceOf(Account account) {
+        return balanceOf(account.getId(), account.getBalance(), account.isStriped());
+    }
+
+    public long balanceOf(AccountView account) {
+        return balanceOf(account.id(), account.balance(), account.isStriped());
+    }
+
+    /**
+     * The balances of several accounts in minor units by account id, reading the stripes of all
+     * striped ones in a single query.
+     */
+    public Map<String, Long> balancesOf(Collection<AccountView> accounts) {
+        Map<String, Long> balances = new HashMap<>();
+        List<String> striped = new ArrayList<>();
+        for (AccountView account : accounts) {
+            balances.put(account.id(), account.balance());
+            if (account.isStriped()) {
+                striped.add(account.id());
+            }
+        }
+        if (!striped.isEmpty()) {
+            for (AccountStripeRepository.StripeTotal total : accountStripeRepository.sumBalances(striped)) {
+                balances.merge(total.getAccountId(), Money.toMinorUnits(total.getBalance()), Money::add);
+            }
+        }
+        return balances;
+    }
+
+    private long balanceOf(String accountId, long balance, boolean striped) {
+        return striped
+                ? Money.add(balance, Money.toMinorUnits(accountStripeRepository.sumBalance(accountId)))
+                : balance;
+    }
+
+    /**
+     * Moves the account's balance into {@code stripes} stripes, or re-stripes an already striped account.
+     */
+    @Transactional
+    public Account enableStriping(String accountNumber, int stripes) {
+        Account account = lockOwnedAccount(accountNumber);
+        if (account.getStripeCount() == stripes) {
+            return account;
+        }
+        balanceCache.evictAfterCommit(accountNumber);
+        unstripe(account);
+        account.setStripeCount(stripes);
+        List<AccountStripe> created = new ArrayList<>(stripes);
+        for (int i = 0; i < stripes; i++) {
+            created.add(new AccountStripe(account, i, 0));
+        }
+        spread(created, account.getBalance());
+        account.setBalance(0);
+        accountStripeRepository.saveAll(created);
+        return account;
+    }
+
+    /**
+     * Folds the stripes back into the account's balance column.
+     */
+    @Transactional
+    public Account disableStriping(String accountNumber) {
+        Account account = lockOwnedAccount(accountNumber);
+        balanceCache.evictAfterCommit(accountNumber);
+        unstripe(account);
+        return account;
+    }
+
+    /**
+     * Stripe ceilings: the cap split evenly to the penny, with the leftover pence on the lowest stripes.
+     */
+    static long ceiling(int index, int stripes) {
+        return Account.MAX_BALANCE / stripes + (index < Account.MAX_BALANCE % stripes ? 1 : 0);
+    }
+
+    private void consolidate(Account account, long delta) {
+        List<AccountStripe> stripes = accountStripeRepository.findAllForUpdate(account.getId());
+        if (stripes.size() != account.getStripeCount()) {
+            throw new ConcurrentTransactionException("Account striping changed during the transaction");
+        }
+        long total = Money.add(sum(stripes), delta);
+        if (total < 0) {
+            throw new InsufficientFundsException("Insufficient balance");
+        }
+        // The same @MoneyRange check an unstriped account's balance gets on flush.
+        Set<ConstraintViolation<Account>> violations = validator.validateValue(Account.class, "balance", total);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        spread(stripes, total);
+    }
+
+    private void unstripe(Account account) {
+        if (!account.isStriped()) {
+            return;
+        }
+        List<AccountStripe> stripes = accountStripeRepository.findAllForUpdate(account.getId());
+        account.setBalance(Money.add(account.getBalance(), sum(stripes)));
+        account.setStripeCount(0);
+        // Deleted straight away so re-striping can insert the same stripe indexes in this transaction.
+        accountStripeRepository.deleteAllInBatch(stripes);
+    }
+
+    /**
+     * Splits {@code total} evenly across the stripes, given in index order. Stays within every
+     * stripe's ceiling whenever {@code total} is within the cap.
+     */
+    private static void spread(List<AccountStripe> stripes, long total) {
+        int count = stripes.size();
+        for (int i = 0; i < count; i++) {
+            stripes.get(i).setBalance(total / count + (i < total % count ? 1 : 0));
+        }
+    }
+
+    private static long sum(List<AccountStripe> stripes) {
+        long total = 0;
+        for (AccountStripe stripe : stripes) {
+            total = Money.add(total, stripe.getBalance());
+        }
+        return total;
+    }
+
+    private Account lockOwnedAccount(String accountNumber) {
+        Account account = accountRepository.findWithLockingByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        if (!account.getUser().getUserId().equals(SecurityContextHolder.getContext().getAuthentication().getName())) {
+            throw new AccessDeniedException("User does not own this account");
+        }
+        return account;
+    }
+}
@@ -0,0 +1,68 @@
+package com.eagle.service;
+
+import com.eagle.dtos.BatchItemStatus;
+import com.eagle.dtos.BatchTransactionItem;
+import com.eagle.dtos.BatchTransactionResponse;
+import com.eagle.dtos.BatchTransactionResult;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Splits a mixed batch into per-account groups and hands each group to
+ * {@link TransactionService#applyBatch}, so every account is locked once per batch
+ * rather than once per operation.
+ */
+@Slf4j
+@Service
+public class TransactionBatchService {
+
+    private final TransactionService transactionService;
+    private final LedgerEngine ledgerEngine;
+
+    public TransactionBatchService(TransactionService transactionService, LedgerEngine ledgerEngine) {
+        this.transactionService = transactionService;
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    public BatchTransactionResponse submit(List<BatchTransactionItem> items) {
+        ledgerEngine.checkBypass("Batches");
+        // Sorted by account number so concurrent batches always visit accounts in the same order.
+        SortedMap<String, List<Integer>> groups = new TreeMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            groups.computeIfAbsent(items.get(i).getAccountNumber(), k -> new ArrayList<>()).add(i);
+        }
+
+        BatchTransactionResult[] results = new BatchTransactionResult[items.size()];
+        groups.forEach((accountNumber, indexes) -> {
+            List<BatchTransactionItem> group = indexes.stream().map(items::get).toList();
+            try {
+                List<BatchTransactionResult> groupResults = transactionService.applyBatch(accountNumber, group);
+                for (int i = 0; i < indexes.size(); i++) {
+                    BatchTransactionResult result = groupResults.get(i);
+                    result.setIndex(indexes.get(i));
+                    results[indexes.get(i)] = result;
+                }
+            } catch (AccountNotFoundException ex) {
+                reject(results, indexes, accountNumber, BatchItemStatus.account_not_found);
+            } catch (AccessDeniedException ex) {
+                reject(results, indexes, accountNumber, BatchItemStatus.forbidden);
+            } catch (ConcurrentTransactionException | ConcurrencyFailureException ex) {
+                log.warn("Batch group for account {} lost a lock conflict", accountNumber);
+                reject(results, indexes, accountNumber, BatchItemStatus.conflict);
+            }
+        });
+        return new BatchTransactionResponse(Arrays.asList(results));
+    }
+
+    private void reject(BatchTransactionResult[] results, List<Integer> indexes, String accountNumber, BatchItemStatus status) {
+        for (int index : indexes) {
+            results[index] = new BatchTransactionResult(index, accountNumber, status, null);
+        }
+    }
+}
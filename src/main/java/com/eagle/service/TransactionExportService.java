@@ -0,0 +1,120 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountView;
+import com.eagle.dtos.StatementFormat;
+import com.eagle.dtos.StatementLine;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.TransactionRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams an account's full statement row by row from a database cursor, so memory use
+ * does not depend on how many transactions the account holds.
+ */
+@Slf4j
+@Service
+public class TransactionExportService {
+
+    static final String CSV_HEADER = "transactionId,amount,currency,type,reference,createdTimestamp";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter lineWriter;
+
+    public TransactionExportService(AccountRepository accountRepository,
+                                    TransactionRepository transactionRepository,
+                                    ObjectMapper objectMapper) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.objectMapper = objectMapper;
+        // Let the generator's own buffer decide when to hit the socket instead of flushing every row.
+        this.lineWriter = objectMapper.writerFor(StatementLine.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Checks ownership and then writes the statement. The sink is only opened once the account
+     * has been resolved, so errors can still be returned as a normal response. The transaction is
+     * read-only, so Hibernate never flushes or dirty-checks while the cursor is open.
+     */
+    @Transactional(readOnly = true)
+    public void export(String accountNumber, StatementFormat format, StatementSink sink) throws IOException {
+        AccountView account = accountRepository.findViewByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        final String userId = SecurityContextHolder.getContext().getAuthentication().getName();
+        if (!account.ownerUserId().equals(userId)) {
+            throw new AccessDeniedException("User does not own this account");
+        }
+
+        try (Stream<StatementLine> lines = transactionRepository.streamStatement(account.id())) {
+            OutputStream out = sink.open();
+            if (format == StatementFormat.csv) {
+                writeCsv(lines.iterator(), out);
+            } else {
+                writeNdjson(lines.iterator(), out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<StatementLine> lines, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            while (lines.hasNext()) {
+                lineWriter.writeValue(generator, lines.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<StatementLine> lines, OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            while (lines.hasNext()) {
+                StatementLine line = lines.next();
+                writer.write(line.transactionId());
+                writer.write(',');
+                writer.write(line.amount().toPlainString());
+                writer.write(',');
+                writer.write(line.currency().name());
+                writer.write(',');
+                writer.write(line.type().name());
+                writer.write(',');
+                writer.write(csvField(line.reference()));
+                writer.write(',');
+                writer.write(line.createdTimestamp().toString());
+                writer.write('\n');
+            }
+        }
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    public interface StatementSink {
+        OutputStream open() throws IOException;
+    }
+}
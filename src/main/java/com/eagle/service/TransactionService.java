@@ -1,38 +1,64 @@
 package com.eagle.service;
 
 import com.eagle.entity.Account;
+import com.eagle.entity.Money;
 import com.eagle.entity.Transaction;
 import com.eagle.exceptions.AccountNotFoundException;
 import com.eagle.exceptions.ConcurrentTransactionException;
 import com.eagle.exceptions.CurrencyMismatchException;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.exceptions.InvalidTransferException;
 import com.eagle.dtos.*;
 import com.eagle.repository.AccountRepository;
+import com.eagle.repository.TransactionRepository;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+
 
 @Slf4j
 @Service
 public class TransactionService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
     private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final StripedBalanceLedger stripedBalanceLedger;
+    private final AccountBalanceCache balanceCache;
+    private final Validator validator;
 
-    public TransactionService(AccountRepository accountRepository) {
+    public TransactionService(AccountRepository accountRepository,
+                              TransactionRepository transactionRepository,
+                              StripedBalanceLedger stripedBalanceLedger,
+                              AccountBalanceCache balanceCache,
+                              Validator validator) {
         this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.stripedBalanceLedger = stripedBalanceLedger;
+        this.balanceCache = balanceCache;
+        this.validator = validator;
     }
 
     @Transactional
     public Transaction createTransaction(String accountNumber, CreateTransactionRequest request) {
-        Account account = accountRepository.findWithLockingByAccountNumber(accountNumber)
-                    .orElseThrow(() -> new AccountNotFoundException(accountNumber));
-        final String userId = SecurityContextHolder.getContext().getAuthentication().getName();
-        if (!account.getUser().getUserId().equals(userId)) {
-            throw new AccessDeniedException("User does not own this account");
-        }
+        return createTransaction(accountNumber, request, null);
+    }
+
+    @Transactional
+    public Transaction createTransaction(String accountNumber, CreateTransactionRequest request, String idempotencyKey) {
+        Account account = lockForUpdate(accountNumber);
+        verifyOwner(account);
         if (!request.getCurrency().equals(account.getCurrency())) {
             throw new CurrencyMismatchException("Transaction currency does not match account currency");
         }
@@ -40,28 +66,259 @@ public class TransactionService {
                 account,
                 request.getType(),
                 request.getCurrency(),
-                request.getAmount(),
+                Money.toMinorUnits(request.getAmount()),
                 request.getReference()
         );
-        Transaction savedTransaction;
+        transaction.setIdempotencyKey(idempotencyKey);
+        if (account.isStriped()) {
+            stripedBalanceLedger.apply(account, transaction);
+            Transaction saved = transactionRepository.saveAndFlush(transaction);
+            balanceCache.updateAfterCommit(account);
+            return saved;
+        }
         try {
-            if (transaction.getType() == TransactionType.deposit) {
-                account.deposit(request.getAmount());
-            } else if (transaction.getType() == TransactionType.withdraw) {
-                account.withdraw(request.getAmount());
-            } else {
-                throw new RuntimeException("Invalid transaction type");
+            post(account, transaction);
+            // Append-only: insert the row on its own and let the flush write balance and version,
+            // so Account.transactions is never initialised however long the history is.
+            Transaction saved = transactionRepository.saveAndFlush(transaction);
+            balanceCache.updateAfterCommit(account);
+            return saved;
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentTransactionException("Account balance updated by another transaction");
+        }
+    }
+
+    /**
+     * Applies a group of operations to one account under a single row lock and inserts the
+     * accepted rows in one JDBC batch. Rejected operations are reported per item and do not
+     * affect the rest of the group. Striped accounts take no row lock; each operation goes to
+     * their stripes as a single post would.
+     */
+    @Transactional
+    public List<BatchTransactionResult> applyBatch(String accountNumber, List<? extends CreateTransactionRequest> requests) {
+        Account account = lockForUpdate(accountNumber);
+        verifyOwner(account);
+
+        List<BatchTransactionResult> results = new ArrayList<>(requests.size());
+        List<Transaction> accepted = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateTransactionRequest request = requests.get(i);
+            if (!request.getCurrency().equals(account.getCurrency())) {
+                results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.currency_mismatch, null));
+                continue;
+            }
+            Transaction transaction = new Transaction(
+                    account,
+                    request.getType(),
+                    request.getCurrency(),
+                    Money.toMinorUnits(request.getAmount()),
+                    request.getReference()
+            );
+            // Checked here, not at the flush, so an amount or reference the entity refuses fails
+            // only its own item instead of rolling back the whole group.
+            if (!validator.validate(transaction).isEmpty()) {
+                results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.invalid, null));
+                continue;
             }
-            account.addTransaction(transaction);
-            Account savedAccount = accountRepository.save(account);
+            try {
+                post(account, transaction);
+            } catch (InsufficientFundsException ex) {
+                results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.insufficient_funds, null));
+                continue;
+            } catch (ConstraintViolationException ex) {
+                results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.balance_limit_exceeded, null));
+                continue;
+            }
+            accepted.add(transaction);
+            results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.applied, null));
+        }
+
+        try {
+            transactionRepository.saveAllAndFlush(accepted);
+        } catch (OptimisticLockingFailureException ex) {
+            throw new ConcurrentTransactionException("Account balance updated by another transaction");
+        }
+        balanceCache.updateAfterCommit(account);
+        Iterator<Transaction> saved = accepted.iterator();
+        for (BatchTransactionResult result : results) {
+            if (result.getStatus() == BatchItemStatus.applied) {
+                result.setTransaction(toResponse(saved.next()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Moves money between two accounts atomically: the debit and credit rows are inserted in one
+     * JDBC batch and commit together. Both account rows are locked in account-number order, so
+     * opposite-direction transfers between the same pair queue behind each other instead of
+     * deadlocking. Only the source account must belong to the caller.
+     */
+    @Transactional
+    public TransferResponse transfer(String fromAccountNumber, CreateTransferRequest request) {
+        String toAccountNumber = request.getToAccountNumber();
+        if (fromAccountNumber.equals(toAccountNumber)) {
+            throw new InvalidTransferException("Cannot transfer to the same account");
+        }
+        boolean sourceFirst = fromAccountNumber.compareTo(toAccountNumber) < 0;
+        Account first = lockForUpdate(sourceFirst ? fromAccountNumber : toAccountNumber);
+        Account second = lockForUpdate(sourceFirst ? toAccountNumber : fromAccountNumber);
+        Account source = sourceFirst ? first : second;
+        Account target = sourceFirst ? second : first;
+        verifyOwner(source);
+        if (!request.getCurrency().equals(source.getCurrency()) || !request.getCurrency().equals(target.getCurrency())) {
+            throw new CurrencyMismatchException("Transfer currency does not match account currency");
+        }
 
-            savedTransaction = savedAccount.getTransactions().stream()
-                    .filter(tx -> tx.getReference().equals(transaction.getReference()))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalStateException("Transaction not persisted"));
+        long amount = Money.toMinorUnits(request.getAmount());
+        Transaction debit = new Transaction(source, TransactionType.withdraw, request.getCurrency(), amount, request.getReference());
+        Transaction credit = new Transaction(target, TransactionType.deposit, request.getCurrency(), amount, request.getReference());
+        post(source, debit);
+        post(target, credit);
+        try {
+            transactionRepository.saveAllAndFlush(List.of(debit, credit));
         } catch (OptimisticLockingFailureException ex) {
             throw new ConcurrentTransactionException("Account balance updated by another transaction");
         }
-        return savedTransaction;
+        balanceCache.updateAfterCommit(source);
+        balanceCache.updateAfterCommit(target);
+        return new TransferResponse(toResponse(debit), toResponse(credit));
+    }
+
+    /**
+     * Applies commands for any number of accounts in one database transaction and one JDBC
+     * batch. Accounts are locked in account-number order. Business rejections are returned per
+     * command; anything else (such as a failed flush) propagates and rolls back the whole group.
+     */
+    @Transactional
+    public List<LedgerOutcome> commitGroup(List<LedgerCommand> commands) {
+        Map<String, Account> accounts = new HashMap<>();
+        commands.stream().map(LedgerCommand::accountNumber).distinct().sorted().forEach(accountNumber ->
+                accountRepository.findWithLockingByAccountNumber(accountNumber)
+                        .ifPresent(account -> accounts.put(accountNumber, account)));
+
+        List<LedgerOutcome> outcomes = new ArrayList<>(commands.size());
+        List<Transaction> accepted = new ArrayList<>(commands.size());
+        for (LedgerCommand command : commands) {
+            CreateTransactionRequest request = command.request();
+            try {
+                Account account = accounts.get(command.accountNumber());
+                if (account == null) {
+                    throw new AccountNotFoundException(command.accountNumber());
+                }
+                verifyOwner(account, command.userId());
+                if (!request.getCurrency().equals(account.getCurrency())) {
+                    throw new CurrencyMismatchException("Transaction currency does not match account currency");
+                }
+                Transaction transaction = new Transaction(
+                        account,
+                        request.getType(),
+                        request.getCurrency(),
+                        Money.toMinorUnits(request.getAmount()),
+                        request.getReference()
+                );
+                transaction.setIdempotencyKey(command.idempotencyKey());
+                Set<ConstraintViolation<Transaction>> invalid = validator.validate(transaction);
+                if (!invalid.isEmpty()) {
+                    throw new ConstraintViolationException(invalid);
+                }
+                post(account, transaction);
+                accepted.add(transaction);
+                outcomes.add(LedgerOutcome.applied(transaction));
+            } catch (AccountNotFoundException | AccessDeniedException | CurrencyMismatchException |
+                     InsufficientFundsException | ConstraintViolationException ex) {
+                outcomes.add(LedgerOutcome.rejected(ex));
+            }
+        }
+        transactionRepository.saveAllAndFlush(accepted);
+        accepted.stream().map(Transaction::getAccount).distinct().forEach(balanceCache::updateAfterCommit);
+        return outcomes;
+    }
+
+    public static TransactionResponse toResponse(Transaction transaction) {
+        return new TransactionResponse(
+                transaction.getId(),
+                transaction.getAmount(),
+                transaction.getCurrency(),
+                transaction.getType(),
+                transaction.getTimestamp()
+        );
+    }
+
+    public ListTransactionsResponse listTransactions(String accountNumber, String cursor, int limit) {
+        TransactionCursor position = cursor == null ? null : TransactionCursor.decode(cursor);
+        AccountView account = accountRepository.findViewByAccountNumber(accountNumber)
+                .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+        verifyOwner(account.ownerUserId(), SecurityContextHolder.getContext().getAuthentication().getName());
+
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to learn whether another page exists without a COUNT query.
+        Limit fetchSize = Limit.of(pageSize + 1);
+        List<TransactionResponse> rows = position == null
+                ? transactionRepository.findLatest(account.id(), fetchSize)
+                : transactionRepository.findBefore(account.id(), position.timestamp(), position.id(), fetchSize);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            TransactionResponse last = rows.get(pageSize - 1);
+            nextCursor = new TransactionCursor(last.getCreateTimeStamp(), last.getTransactionId()).encode();
+        }
+        return new ListTransactionsResponse(rows, nextCursor);
+    }
+
+    static void apply(Account account, Transaction transaction) {
+        if (account.isStriped()) {
+            throw new IllegalStateException("Striped account " + account.getAccountNumber() + " only accepts single transactions");
+        }
+        if (transaction.getType() == TransactionType.deposit) {
+            account.deposit(transaction.getAmount());
+        } else if (transaction.getType() == TransactionType.withdraw) {
+            account.withdraw(transaction.getAmount());
+        } else {
+            throw new RuntimeException("Invalid transaction type");
+        }
+    }
+
+    // Striped accounts keep their balance in account_stripe rows and never lock the account row.
+    private Account lockForUpdate(String accountNumber) {
+        boolean striped = accountRepository.findStripeCountByAccountNumber(accountNumber).orElse(0) > 0;
+        return (striped
+                ? accountRepository.findByAccountNumber(accountNumber)
+                : accountRepository.findWithLockingByAccountNumber(accountNumber))
+                    .orElseThrow(() -> new AccountNotFoundException(accountNumber));
+    }
+
+    /**
+     * Applies the transaction to the account or its stripes, rejecting it with a
+     * {@link ConstraintViolationException} if it would take the balance past the
+     * {@code @MoneyRange} cap, so a batch can report the item instead of failing on flush.
+     */
+    private void post(Account account, Transaction transaction) {
+        if (account.isStriped()) {
+            stripedBalanceLedger.apply(account, transaction);
+            return;
+        }
+        long before = account.getBalance();
+        apply(account, transaction);
+        Set<ConstraintViolation<Account>> violations = validator.validateProperty(account, "balance");
+        if (!violations.isEmpty()) {
+            account.setBalance(before);
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    private void verifyOwner(Account account) {
+        verifyOwner(account, SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    private void verifyOwner(Account account, String userId) {
+        verifyOwner(account.getUser().getUserId(), userId);
+    }
+
+    private void verifyOwner(String ownerUserId, String userId) {
+        if (!ownerUserId.equals(userId)) {
+            throw new AccessDeniedException("User does not own this account");
+        }
     }
 }
@@ -0,0 +1,31 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransferRequest;
+import com.eagle.dtos.TransferResponse;
+import org.springframework.stereotype.Service;
+
+/**
+ * Entry point for transfers between two accounts: runs {@link TransactionService#transfer} in its
+ * own database transaction and retries it through {@link ConflictRetryPolicy} on lock conflicts,
+ * charging the retry budget to the source account.
+ */
+@Service
+public class TransferService {
+
+    private final TransactionService transactionService;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+    private final LedgerEngine ledgerEngine;
+
+    public TransferService(TransactionService transactionService, ConflictRetryPolicy conflictRetryPolicy,
+                           LedgerEngine ledgerEngine) {
+        this.transactionService = transactionService;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.ledgerEngine = ledgerEngine;
+    }
+
+    public TransferResponse transfer(String fromAccountNumber, CreateTransferRequest request) {
+        ledgerEngine.checkBypass("Transfers");
+        return conflictRetryPolicy.execute(fromAccountNumber,
+                () -> transactionService.transfer(fromAccountNumber, request));
+    }
+}
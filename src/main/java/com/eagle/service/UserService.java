@@ -1,12 +1,15 @@
 package com.eagle.service;
 
+import com.eagle.dtos.UserResponse;
 import com.eagle.entity.User;
 import com.eagle.repository.UserRepository;
+import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -16,7 +19,7 @@ import java.util.Optional;
 
 @Slf4j
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -31,10 +34,27 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userId));
     }
 
-    public Optional<User> findByUserId(String userId) throws UsernameNotFoundException {
+    /**
+     * Stores a hash produced at the current hashing parameters after a successful login with an
+     * outdated one.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        User user = userRepository.findByUserId(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userDetails.getUsername()));
+        user.setPasswordHash(newPasswordHash);
+        log.info("Upgraded password hash for user {}", user.getUserId());
+        return toUserDetails(user);
+    }
+
+    /**
+     * The caller's own profile, read as a projection so the password hash is never loaded.
+     */
+    public Optional<UserResponse> findByUserId(String userId) throws UsernameNotFoundException {
         final String tokenUserId = SecurityContextHolder.getContext().getAuthentication().getName();
         if (Objects.equals(tokenUserId, userId)) {
-            return userRepository.findByUserId(userId);
+            return userRepository.findResponseByUserId(userId);
         } else {
             throw new AccessDeniedException("User not allowed to access this resource");
         }
@@ -44,6 +64,7 @@ public class UserService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getUserId())
                 .password(user.getPasswordHash())
+                .accountLocked(user.isLocked())
                 .build();
     }
 }
@@ -0,0 +1,93 @@
+-- Schema as of the first versioned release. Later changes go in new V<n>__*.sql files;
+-- never edit a migration that has already been applied.
+
+create sequence acc_seq start with 1 increment by 100;
+
+create table account_sequence (
+    id bigint not null,
+    primary key (id)
+);
+
+create table eagle_user (
+    user_id varchar(255) not null,
+    user_name varchar(255) not null,
+    address_line1 varchar(255) not null,
+    address_line2 varchar(255),
+    address_line3 varchar(255),
+    town varchar(255) not null,
+    county varchar(255) not null,
+    postcode varchar(255) not null,
+    phone_number varchar(255) not null,
+    email varchar(255) not null,
+    password_hash varchar(255) not null,
+    locked boolean not null,
+    created_timestamp timestamp(6) with time zone not null,
+    updated_timestamp timestamp(6) with time zone not null,
+    constraint pk_eagle_user primary key (user_id),
+    constraint uk_eagle_user_email unique (email)
+);
+
+create table account (
+    account_id varchar(255) not null,
+    user_id varchar(255) not null,
+    account_number varchar(255) not null,
+    sort_code varchar(255) not null,
+    name varchar(255) not null,
+    account_type enum ('personal') not null,
+    balance numeric(15,2) not null check (balance >= 0 AND balance <= 10000.00),
+    stripe_count integer not null,
+    current enum ('GBP') not null,
+    version bigint,
+    create_timestamp timestamp(6) with time zone not null,
+    update_timestamp timestamp(6) with time zone not null,
+    constraint pk_account primary key (account_id),
+    constraint uk_account_account_number unique (account_number),
+    constraint fk_account_user foreign key (user_id) references eagle_user
+);
+
+-- Accounts of a user, e.g. the ownership checks and the account list
+create index idx_account_user on account (user_id);
+
+create table account_stripe (
+    stripe_id varchar(255) not null,
+    account_id varchar(255) not null,
+    stripe_index integer not null,
+    balance numeric(15,2) not null check (balance >= 0),
+    constraint pk_account_stripe primary key (stripe_id),
+    constraint uk_account_stripe_account_index unique (account_id, stripe_index),
+    constraint fk_account_stripe_account foreign key (account_id) references account
+);
+
+create table transaction (
+    id varchar(255) not null,
+    account_id varchar(255) not null,
+    type enum ('deposit','withdraw') not null,
+    currency enum ('GBP') not null,
+    amount numeric(15,2) not null check (amount >= 0.01 AND amount <= 10000.00),
+    reference varchar(255),
+    idempotency_key varchar(255),
+    timestamp timestamp(6) with time zone not null,
+    constraint pk_transaction primary key (id),
+    constraint uk_transaction_account_idempotency_key unique (account_id, idempotency_key),
+    constraint fk_transaction_account foreign key (account_id) references account
+);
+
+-- Statement pages and exports: one account's transactions in (timestamp, id) order
+create index idx_transaction_account_timestamp_id on transaction (account_id, timestamp, id);
+
+create table refresh_token (
+    refresh_token_id varchar(255) not null,
+    token_hash varchar(44) not null,
+    family_id varchar(36) not null,
+    user_id varchar(255) not null,
+    issued_at timestamp(6) with time zone not null,
+    expires_at timestamp(6) with time zone not null,
+    family_expires_at timestamp(6) with time zone not null,
+    rotated_at timestamp(6) with time zone,
+    revoked boolean not null,
+    constraint pk_refresh_token primary key (refresh_token_id),
+    constraint uk_refresh_token_token_hash unique (token_hash)
+);
+
+create index idx_refresh_token_family on refresh_token (family_id);
+create index idx_refresh_token_user on refresh_token (user_id);
@@ -0,0 +1,4 @@
+-- Account lists page through one user's accounts in (create_timestamp, account_id) order;
+-- the new index also serves every lookup the user_id-only one did.
+create index idx_account_user_created on account (user_id, create_timestamp, account_id);
+drop index idx_account_user;
@@ -0,0 +1,31 @@
+package com.eagle;
+
+import com.eagle.repository.SchemaIndexVerifier;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application on the prod profile against an empty database: the migrations must
+ * build a schema that Hibernate validates and that has every expected index.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:prod-profile;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64")
+@ActiveProfiles("prod")
+class ProdProfileTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private SchemaIndexVerifier schemaIndexVerifier;
+
+    @Test
+    void migrationsBuildAValidIndexedSchema() {
+        assertEquals("2", flyway.info().current().getVersion().getVersion());
+        assertDoesNotThrow(schemaIndexVerifier::afterSingletonsInstantiated);
+    }
+}
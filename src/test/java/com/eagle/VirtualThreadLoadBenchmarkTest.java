@@ -0,0 +1,193 @@
+package com.eagle;
+
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.UserRepository;
+import com.eagle.security.JWTService;
+import jakarta.servlet.Filter;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.FilterChain;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the default platform-thread Tomcat pool with {@code spring.threads.virtual.enabled=true}
+ * under POST .../transactions traffic that queues on a handful of account row locks. Reports the
+ * peak number of requests in flight inside the server, throughput and latency percentiles, and in
+ * virtual mode the stack frames where virtual threads were pinned to their carrier.
+ * Run with {@code ./mvnw test -Dtest=VirtualThreadLoadBenchmarkTest -Deagle.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+public class VirtualThreadLoadBenchmarkTest {
+
+    private static final int ACCOUNTS = 8;
+    private static final int CLIENTS = Integer.getInteger("eagle.benchmark.clients", 1000);
+    private static final int REQUESTS_PER_CLIENT = Integer.getInteger("eagle.benchmark.requests-per-client", 5);
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        run(false, Math.max(ACCOUNTS, CLIENTS / 10));
+        Result platform = run(false, CLIENTS);
+        run(true, Math.max(ACCOUNTS, CLIENTS / 10));
+        Result virtual = run(true, CLIENTS);
+        System.out.printf("Virtual threads: %.1fx the in-flight requests, p99 %.2f ms vs %.2f ms%n",
+                (double) virtual.maxInFlight / platform.maxInFlight, virtual.p99Millis, platform.p99Millis);
+    }
+
+    private Result run(boolean virtualThreads, int clients) throws Exception {
+        InFlightFilter inFlight = new InFlightFilter();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EagleApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=warn")
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("inFlightFilter", inFlight))
+                .run();
+        Map<String, Integer> pinnedFrames = new ConcurrentHashMap<>();
+        RecordingStream pinning = new RecordingStream();
+        // Parking while pinned, and (on Java 21) waiting for a contended monitor, both hold the carrier.
+        pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+        pinning.enable("jdk.JavaMonitorEnter").withThreshold(Duration.ZERO).withStackTrace();
+        pinning.onEvent(event -> {
+            if (event.getStackTrace() != null && event.getThread() != null && event.getThread().isVirtual()) {
+                pinnedFrames.merge(event.getEventType().getName().substring(4) + " at "
+                        + firstForeignFrame(event.getStackTrace().getFrames()), 1, Integer::sum);
+            }
+        });
+        pinning.startAsync();
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            List<String> tokens = createAccounts(context);
+            Result result = load(port, tokens, clients, inFlight);
+            System.out.printf("%-8s %5d clients  max in flight %5d  %7.0f req/s  p50 %7.2f ms  p99 %7.2f ms%n",
+                    virtualThreads ? "virtual" : "platform", clients, result.maxInFlight, result.throughput,
+                    result.p50Millis, result.p99Millis);
+            return result;
+        } finally {
+            pinning.stop();
+            pinning.close();
+            context.close();
+            if (virtualThreads && clients == CLIENTS) {
+                System.out.printf("Carrier-blocking events on virtual threads: %d%n",
+                        pinnedFrames.values().stream().mapToInt(Integer::intValue).sum());
+                pinnedFrames.entrySet().stream()
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .limit(10)
+                        .forEach(entry -> System.out.printf("  %6d x %s%n", entry.getValue(), entry.getKey()));
+            }
+        }
+    }
+
+    private List<String> createAccounts(ConfigurableApplicationContext context) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        JWTService jwtService = context.getBean(JWTService.class);
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            User user = userRepository.save(new User(
+                    "loadUser", new User.Address("1", "2", "3", "4", "5", "6"), "", "load-" + UUID.randomUUID(), ""));
+            accountRepository.save(new Account(user, String.format("0190%04d", i), SortCode.Branch1, "Load",
+                    AccountType.personal, 0, Currency.GBP));
+            tokens.add(jwtService.generateToken(user.getUserId()));
+        }
+        return tokens;
+    }
+
+    private Result load(int port, List<String> tokens, int clients, InFlightFilter inFlight) throws Exception {
+        int total = clients * REQUESTS_PER_CLIENT;
+        long[] latencies = new long[total];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().executor(executor).build()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int account = c % ACCOUNTS;
+                HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(
+                                "http://localhost:%d/v1/accounts/0190%04d/transactions", port, account)))
+                        .header("Authorization", "Bearer " + tokens.get(account))
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(120))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":1.00,\"currency\":\"GBP\",\"type\":\"deposit\"}"))
+                        .build();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 201) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[next.getAndIncrement()] = System.nanoTime() - t0;
+                    }
+                    return null;
+                }));
+            }
+            long t0 = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - t0) / 1e9;
+            assertEquals(0, failures.get(), "requests that did not return 201");
+            Arrays.sort(latencies);
+            return new Result(inFlight.max.get(), total / seconds,
+                    latencies[total / 2] / 1e6, latencies[(int) (total * 0.99)] / 1e6);
+        }
+    }
+
+    private static String firstForeignFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "?" : frames.get(0).getMethod().getType().getName();
+    }
+
+    private record Result(int maxInFlight, double throughput, double p50Millis, double p99Millis) {}
+
+    /**
+     * Counts requests between entering and leaving the servlet filter chain.
+     */
+    private static final class InFlightFilter implements Filter {
+
+        private final AtomicInteger current = new AtomicInteger();
+        private final AtomicInteger max = new AtomicInteger();
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException {
+            max.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                current.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.eagle.controller;
+
+import com.eagle.security.JWTService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransactionControllerTest {
+
+    private static final String DEPOSIT = """
+            {"amount": 10.00, "currency": "GBP", "type": "deposit"}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JWTService jwtService;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = "Bearer " + jwtService.generateToken("usr-controller-test");
+    }
+
+    @Test
+    void createTransaction_MalformedAccountNumberIsBadRequest() throws Exception {
+        mockMvc.perform(post("/v1/accounts/12345/transactions")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DEPOSIT))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+    }
+
+    @Test
+    void createTransaction_OverlongIdempotencyKeyIsBadRequest() throws Exception {
+        mockMvc.perform(post("/v1/accounts/01000001/transactions")
+                        .header(HttpHeaders.AUTHORIZATION, bearer)
+                        .header("Idempotency-Key", "k".repeat(256))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DEPOSIT))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listTransactions_MalformedAccountNumberIsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/accounts/not-an-account/transactions")
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isBadRequest());
+    }
+}
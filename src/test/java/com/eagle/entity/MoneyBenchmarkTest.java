@@ -0,0 +1,88 @@
+package com.eagle.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.function.LongSupplier;
+
+/**
+ * Cost of one deposit plus one withdrawal with balance check on the old {@link BigDecimal}
+ * balance against the {@link Money} minor-unit balance. JMH-style harness: warm-up rounds, then
+ * measured rounds reporting the best time and the bytes allocated per operation.
+ * Run with {@code ./mvnw test -Dtest=MoneyBenchmarkTest -Deagle.benchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+class MoneyBenchmarkTest {
+
+    private static final int OPERATIONS = 10_000_000;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // Written after every round so the JIT cannot drop the loops.
+    static volatile long sink;
+
+    // Varying, pre-built amounts so neither loop can be folded into a no-op or pay for parsing.
+    private static final int AMOUNT_MASK = 1023;
+    private static final long[] MINOR_AMOUNTS = new long[AMOUNT_MASK + 1];
+    private static final BigDecimal[] DECIMAL_AMOUNTS = new BigDecimal[AMOUNT_MASK + 1];
+
+    static {
+        for (int i = 0; i <= AMOUNT_MASK; i++) {
+            MINOR_AMOUNTS[i] = 1 + (i * 7919L) % 10_000;
+            DECIMAL_AMOUNTS[i] = Money.toDecimal(MINOR_AMOUNTS[i]);
+        }
+    }
+
+    @Test
+    void compareBalanceArithmetic() {
+        double decimal = run("BigDecimal", MoneyBenchmarkTest::bigDecimalLedger);
+        double minorUnits = run("long minor units", MoneyBenchmarkTest::minorUnitsLedger);
+        System.out.printf("Minor units are %.1fx faster per deposit/withdraw pair%n", decimal / minorUnits);
+    }
+
+    private static long bigDecimalLedger() {
+        BigDecimal balance = new BigDecimal("100000000.00");
+        for (int i = 0; i < OPERATIONS; i++) {
+            balance = balance.add(DECIMAL_AMOUNTS[i & AMOUNT_MASK]);
+            BigDecimal withdrawal = DECIMAL_AMOUNTS[(i + 7) & AMOUNT_MASK];
+            if (balance.compareTo(withdrawal) < 0) {
+                throw new IllegalStateException();
+            }
+            balance = balance.subtract(withdrawal);
+        }
+        return balance.unscaledValue().longValue();
+    }
+
+    private static long minorUnitsLedger() {
+        Account account = new Account();
+        account.setBalance(10_000_000_000L);
+        for (int i = 0; i < OPERATIONS; i++) {
+            account.deposit(MINOR_AMOUNTS[i & AMOUNT_MASK]);
+            account.withdraw(MINOR_AMOUNTS[(i + 7) & AMOUNT_MASK]);
+        }
+        return account.getBalance();
+    }
+
+    private static double run(String label, LongSupplier benchmark) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            sink = benchmark.getAsLong();
+        }
+        long best = Long.MAX_VALUE;
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            sink = benchmark.getAsLong();
+            best = Math.min(best, System.nanoTime() - start);
+            allocated += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        }
+        double nanosPerOp = (double) best / OPERATIONS;
+        System.out.printf("%-18s %7.2f ns/op  %7.1f B/op%n", label, nanosPerOp,
+                (double) allocated / MEASURED_ROUNDS / OPERATIONS);
+        return nanosPerOp;
+    }
+}
@@ -0,0 +1,61 @@
+package com.eagle.entity;
+
+import com.eagle.exceptions.InsufficientFundsException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void toMinorUnits_ConvertsExactlyAndRejectsFractionsOfAPenny() {
+        assertEquals(1234, Money.toMinorUnits(new BigDecimal("12.34")));
+        assertEquals(1200, Money.toMinorUnits(new BigDecimal("12")));
+        assertEquals(1, Money.toMinorUnits(new BigDecimal("0.010")));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("0.005")));
+        assertThrows(ArithmeticException.class, () -> Money.toMinorUnits(new BigDecimal("1e20")));
+    }
+
+    @Test
+    void toDecimal_AlwaysHasTwoDecimalPlaces() {
+        assertEquals(new BigDecimal("12.34"), Money.toDecimal(1234));
+        assertEquals(new BigDecimal("0.00"), Money.toDecimal(0));
+        assertEquals(new BigDecimal("-0.05"), Money.toDecimal(-5));
+    }
+
+    @Test
+    void arithmetic_FailsOnOverflowInsteadOfWrapping() {
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.subtract(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Money.negate(Long.MIN_VALUE));
+    }
+
+    @Test
+    void account_DepositAndWithdrawInMinorUnits() {
+        Account account = new Account();
+        account.deposit(1005);
+        account.withdraw(5);
+        assertEquals(1000, account.getBalance());
+        assertThrows(InsufficientFundsException.class, () -> account.withdraw(1001));
+        assertEquals(1000, account.getBalance());
+    }
+
+    @Test
+    void moneyRange_ReportsBoundsInPounds() {
+        Set<ConstraintViolation<Account>> violations =
+                validator.validateValue(Account.class, "balance", Account.MAX_BALANCE + 1);
+
+        assertEquals(1, violations.size());
+        assertEquals("must be between 0.00 and 10000.00", violations.iterator().next().getMessage());
+        assertTrue(validator.validateValue(Account.class, "balance", Account.MAX_BALANCE).isEmpty());
+        assertFalse(validator.validateValue(Transaction.class, "amount", 0L).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.eagle.entity;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Insert throughput into a table keyed like {@code transaction}, with random v4 UUIDs against
+ * {@link TimeOrderedIds}. Each run fills its own H2 file database and reports rows per second for
+ * every slice of {@code eagle.benchmark.report-every} rows, so the slowdown as the primary-key index
+ * outgrows the cache shows up, plus the final database size.
+ * Run with {@code ./mvnw test -Dtest=TimeOrderedIdsBenchmarkTest -Deagle.benchmark=true},
+ * optionally with {@code -Deagle.benchmark.rows=10000000}.
+ */
+@EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+class TimeOrderedIdsBenchmarkTest {
+
+    private static final long ROWS = Long.getLong("eagle.benchmark.rows", 10_000_000);
+    private static final long REPORT_EVERY = Long.getLong("eagle.benchmark.report-every", 1_000_000);
+    private static final int BATCH = 1000;
+
+    @Test
+    void compareRandomAndTimeOrderedIds() throws Exception {
+        double random = run("random v4", () -> UUID.randomUUID().toString());
+        double ordered = run("time-ordered v7", TimeOrderedIds::next);
+        System.out.printf("Time-ordered ids insert %.2fx as fast over %,d rows%n", ordered / random, ROWS);
+    }
+
+    private static double run(String label, Supplier<String> ids) throws Exception {
+        Path dir = Files.createTempDirectory("eagle-ids");
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + dir.resolve("ids") + ";CACHE_SIZE=65536")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("""
+                        CREATE TABLE transaction (
+                            id VARCHAR(255) PRIMARY KEY,
+                            account_id VARCHAR(255) NOT NULL,
+                            amount DECIMAL(15, 2) NOT NULL,
+                            timestamp TIMESTAMP NOT NULL)
+                        """);
+            }
+            connection.setAutoCommit(false);
+            long startedAt = System.nanoTime();
+            long sliceStartedAt = startedAt;
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO transaction (id, account_id, amount, timestamp) VALUES (?, ?, 10.00, CURRENT_TIMESTAMP)")) {
+                for (long row = 1; row <= ROWS; row++) {
+                    insert.setString(1, ids.get());
+                    insert.setString(2, "account-" + (row & 1023));
+                    insert.addBatch();
+                    if (row % BATCH == 0) {
+                        insert.executeBatch();
+                        connection.commit();
+                    }
+                    if (row % REPORT_EVERY == 0) {
+                        long now = System.nanoTime();
+                        System.out.printf("%-16s rows %,12d: %,10.0f rows/s%n", label, row, REPORT_EVERY / ((now - sliceStartedAt) / 1e9));
+                        sliceStartedAt = now;
+                    }
+                }
+                insert.executeBatch();
+                connection.commit();
+            }
+            double rowsPerSecond = ROWS / ((System.nanoTime() - startedAt) / 1e9);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CHECKPOINT SYNC");
+            }
+            System.out.printf("%-16s overall %,10.0f rows/s, database %,d MB%n", label, rowsPerSecond,
+                    Files.size(dir.resolve("ids.mv.db")) / (1024 * 1024));
+            return rowsPerSecond;
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.eagle.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedIdsTest {
+
+    @Test
+    void nextUuid_IsVersion7WithCurrentTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = TimeOrderedIds.nextUuid();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1000);
+    }
+
+    @Test
+    void next_IncreasesAsTextAndNumber() {
+        String previous = TimeOrderedIds.next();
+        // Far more than 4096 per millisecond, so the counter overflows into the timestamp.
+        for (int i = 0; i < 100_000; i++) {
+            String id = TimeOrderedIds.next();
+            assertTrue(id.compareTo(previous) > 0, id + " after " + previous);
+            assertTrue(Long.compareUnsigned(UUID.fromString(id).getMostSignificantBits(),
+                    UUID.fromString(previous).getMostSignificantBits()) > 0);
+            previous = id;
+        }
+    }
+
+    @Test
+    void next_EachThreadSeesIncreasingIds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    List<String> ids = new ArrayList<>();
+                    for (int i = 0; i < 20_000; i++) {
+                        ids.add(TimeOrderedIds.next());
+                    }
+                    return ids;
+                }));
+            }
+            List<String> all = new ArrayList<>();
+            for (Future<List<String>> result : results) {
+                List<String> ids = result.get(10, TimeUnit.SECONDS);
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i).compareTo(ids.get(i - 1)) > 0);
+                }
+                all.addAll(ids);
+            }
+            assertEquals(all.size(), all.stream().distinct().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
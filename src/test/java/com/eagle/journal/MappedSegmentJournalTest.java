@@ -0,0 +1,139 @@
+package com.eagle.journal;
+
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+import com.eagle.exceptions.JournalRecordTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedSegmentJournalTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_ReturnsRecordsPastTheCheckpoint() throws IOException {
+        List<JournalRecord> written = new ArrayList<>();
+        try (MappedSegmentJournal journal = open(SEGMENT_SIZE)) {
+            for (int i = 0; i < 5; i++) {
+                JournalRecord record = record(i % 2 == 0 ? "ref-" + i : null);
+                written.add(record);
+                assertEquals(i + 1, journal.append(record));
+            }
+            journal.sync();
+            journal.checkpoint(2);
+        }
+
+        try (MappedSegmentJournal journal = open(SEGMENT_SIZE)) {
+            assertEquals(written.subList(2, 5), journal.unpersisted());
+            assertEquals(5, journal.lastSequence());
+            assertEquals(6, journal.append(record(null)));
+        }
+    }
+
+    @Test
+    void reopen_TruncatesTornTail() throws IOException {
+        try (MappedSegmentJournal journal = open(SEGMENT_SIZE)) {
+            for (int i = 0; i < 3; i++) {
+                journal.append(record("ref-" + i));
+            }
+        }
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long third = 0;
+            for (int i = 0; i < 2; i++) {
+                file.seek(third);
+                third += 8 + file.readInt();
+            }
+            file.seek(third + 20);
+            file.writeByte(file.readByte() ^ 0xFF);
+        }
+
+        JournalRecord replacement = record("replacement");
+        try (MappedSegmentJournal journal = open(SEGMENT_SIZE)) {
+            assertEquals(2, journal.unpersisted().size());
+            assertEquals(3, journal.append(replacement));
+        }
+        try (MappedSegmentJournal journal = open(SEGMENT_SIZE)) {
+            assertEquals(3, journal.unpersisted().size());
+            assertEquals(replacement, journal.unpersisted().get(2));
+        }
+    }
+
+    @Test
+    void append_RollsSegmentsAndDeletesCheckpointedOnes() throws IOException {
+        try (MappedSegmentJournal journal = open(1024)) {
+            for (int i = 0; i < 40; i++) {
+                journal.append(record(null));
+            }
+            assertTrue(segments().size() > 3);
+
+            journal.checkpoint(40);
+            while (segments().size() > 1) {
+                journal.append(record(null));
+            }
+        }
+
+        try (MappedSegmentJournal journal = open(1024)) {
+            assertEquals(journal.lastSequence() - 40, journal.unpersisted().size());
+        }
+    }
+
+    @Test
+    void append_RefusesRecordsThatCanNeverFitAndStaysUsable() throws IOException {
+        try (MappedSegmentJournal journal = open(1024)) {
+            journal.append(record("ref-1"));
+            assertThrows(JournalRecordTooLargeException.class, () -> journal.append(record("x".repeat(2000))));
+            assertThrows(JournalRecordTooLargeException.class, () -> journal.append(record("x".repeat(70_000))));
+            assertEquals(2, journal.append(record("ref-2")));
+        }
+
+        try (MappedSegmentJournal journal = open(1024)) {
+            assertEquals(List.of("ref-1", "ref-2"), journal.unpersisted().stream().map(JournalRecord::reference).toList());
+        }
+    }
+
+    @Test
+    void fsyncPolicy_ForcesByIntervalOrRecordCount() {
+        FsyncPolicy interval = new FsyncPolicy(FsyncPolicy.Mode.interval, 10, 0);
+        assertFalse(interval.isDue(5, 1_000_000));
+        assertTrue(interval.isDue(5, 10_000_000));
+        assertFalse(interval.isDue(0, 10_000_000));
+
+        FsyncPolicy records = new FsyncPolicy(FsyncPolicy.Mode.records, 0, 100);
+        assertFalse(records.isDue(99, Long.MAX_VALUE));
+        assertTrue(records.isDue(100, 0));
+
+        assertTrue(FsyncPolicy.always().isDue(1, 0));
+    }
+
+    private MappedSegmentJournal open(int segmentSize) throws IOException {
+        return new MappedSegmentJournal(directory, segmentSize, FsyncPolicy.always());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private JournalRecord record(String reference) {
+        return new JournalRecord(UUID.randomUUID().toString(), UUID.randomUUID().toString(), TransactionType.deposit,
+                Currency.GBP, 1234, reference, null, Instant.now());
+    }
+}
@@ -0,0 +1,91 @@
+package com.eagle.repository;
+
+import com.eagle.dtos.AccountView;
+import com.eagle.dtos.UserResponse;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class ReadProjectionQueriesTest {
+
+    private static final String ACCOUNT_NUMBER = "01300001";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Account account;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User(
+                "projectionUser",
+                new User.Address("1 Street", null, null, "Town", "County", "AB1 2CD"),
+                "07000000000",
+                "projection-" + UUID.randomUUID(),
+                "{bcrypt}secret"
+        ));
+        account = accountRepository.save(new Account(user, ACCOUNT_NUMBER, SortCode.Branch1, "Projection",
+                AccountType.personal, 12_345, Currency.GBP));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(user.getUserId());
+    }
+
+    @Test
+    void findResponseByUserId_ReadsProfileWithoutLoadingTheEntity() {
+        UserResponse response = userRepository.findResponseByUserId(user.getUserId()).orElseThrow();
+
+        assertEquals(user.getUserId(), response.getId());
+        assertEquals("projectionUser", response.getName());
+        assertEquals("AB1 2CD", response.getAddress().getPostcode());
+        assertNull(response.getAddress().getLine2());
+        assertEquals(user.getEmail(), response.getEmail());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findViewByAccountNumber_ReadsAccountWithoutLoadingEntities() {
+        AccountView view = accountRepository.findViewByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+
+        assertEquals(account.getId(), view.id());
+        assertEquals(user.getUserId(), view.ownerUserId());
+        assertEquals(12_345, view.balance());
+        assertEquals(account.getVersion(), view.version());
+        assertFalse(view.isStriped());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findViewByAccountNumber_UnknownAccount() {
+        assertTrue(accountRepository.findViewByAccountNumber("01399999").isEmpty());
+    }
+}
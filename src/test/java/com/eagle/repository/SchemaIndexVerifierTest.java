@@ -0,0 +1,42 @@
+package com.eagle.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SchemaIndexVerifierTest {
+
+    private static final List<SchemaIndexVerifier.ExpectedIndex> EXPECTED = List.of(
+            new SchemaIndexVerifier.ExpectedIndex("transaction", "account_id", "timestamp", "id"),
+            new SchemaIndexVerifier.ExpectedIndex("transaction", "account_id"),
+            new SchemaIndexVerifier.ExpectedIndex("transaction", "id"));
+
+    @Test
+    void missing_ReportsIndexesThatAreAbsent() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table transaction (id varchar(36) primary key, account_id varchar(36), timestamp timestamp)");
+            }
+
+            assertEquals(EXPECTED.subList(0, 2), SchemaIndexVerifier.missing(connection, EXPECTED));
+        }
+    }
+
+    @Test
+    void missing_AnyIndexWithTheLeadingColumnsCounts() throws Exception {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table transaction (id varchar(36) primary key, account_id varchar(36), timestamp timestamp)");
+                statement.execute("create index some_other_name on transaction (account_id, timestamp, id)");
+            }
+
+            assertTrue(SchemaIndexVerifier.missing(connection, EXPECTED).isEmpty());
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.eagle.security;
 
 import com.eagle.dtos.AuthResponse;
+import com.eagle.exceptions.InvalidRefreshTokenException;
+import com.eagle.exceptions.LoginThrottledException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -25,12 +32,23 @@ class AuthServiceTest {
     @Mock
     private JWTService jwtService;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
     @InjectMocks
     private AuthService authService;
 
     private final String TEST_USER_ID = "user123";
     private final String TEST_PASSWORD = "password123";
     private final String TEST_TOKEN = "generated.jwt.token";
+    private final String TEST_ADDRESS = "10.0.0.1";
+    private final String TEST_REFRESH_TOKEN = "opaque-refresh-token";
 
     @Test
     void authenticate_Success() {
@@ -39,14 +57,16 @@ class AuthServiceTest {
         when(mockAuth.getName()).thenReturn(TEST_USER_ID);
         when(authenticationManager.authenticate(any()))
                 .thenReturn(mockAuth);
-        when(jwtService.generateToken(TEST_USER_ID)).thenReturn(TEST_TOKEN);
+        when(jwtService.generateToken(eq(TEST_USER_ID), any())).thenReturn(TEST_TOKEN);
+        when(refreshTokenService.issue(TEST_USER_ID)).thenReturn(TEST_REFRESH_TOKEN);
 
         // Execute
-        AuthResponse response = authService.authenticate(TEST_USER_ID, TEST_PASSWORD);
+        AuthResponse response = authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS);
 
         // Verify
         assertNotNull(response);
         assertEquals(TEST_TOKEN, response.getToken());
+        assertEquals(TEST_REFRESH_TOKEN, response.getRefreshToken());
 
         // Verify authentication manager call
         verify(authenticationManager).authenticate(
@@ -58,7 +78,7 @@ class AuthServiceTest {
         );
 
         // Verify token generation
-        verify(jwtService).generateToken(TEST_USER_ID);
+        verify(jwtService).generateToken(eq(TEST_USER_ID), any());
     }
 
     @Test
@@ -70,11 +90,46 @@ class AuthServiceTest {
         // Execute & Verify
         BadCredentialsException exception = assertThrows(
                 BadCredentialsException.class,
-                () -> authService.authenticate(TEST_USER_ID, TEST_PASSWORD)
+                () -> authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS)
         );
 
         assertEquals("Invalid credentials", exception.getMessage());
-        verifyNoInteractions(jwtService);
+        verifyNoInteractions(jwtService, refreshTokenService);
+        verify(loginThrottle).recordFailure(TEST_USER_ID, TEST_ADDRESS);
+        verify(loginThrottle, never()).recordSuccess(any());
+    }
+
+    @Test
+    void authenticate_ThrottledBeforeHashing() {
+        // Setup
+        doThrow(new LoginThrottledException("Too many failed login attempts", 60))
+                .when(loginThrottle).check(TEST_USER_ID, TEST_ADDRESS);
+
+        // Execute & Verify
+        assertThrows(
+                LoginThrottledException.class,
+                () -> authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS)
+        );
+
+        verifyNoInteractions(authenticationManager, jwtService);
+        verify(loginThrottle, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void authenticate_SuccessClearsUserFailures() {
+        // Setup
+        Authentication mockAuth = mock(Authentication.class);
+        when(mockAuth.getName()).thenReturn(TEST_USER_ID);
+        when(authenticationManager.authenticate(any())).thenReturn(mockAuth);
+
+        // Execute
+        authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS);
+
+        // Verify
+        InOrder inOrder = inOrder(loginThrottle, authenticationManager);
+        inOrder.verify(loginThrottle).check(TEST_USER_ID, TEST_ADDRESS);
+        inOrder.verify(authenticationManager).authenticate(any());
+        inOrder.verify(loginThrottle).recordSuccess(TEST_USER_ID);
     }
 
     @Test
@@ -82,12 +137,12 @@ class AuthServiceTest {
         // Execute & Verify
         assertThrows(
                 IllegalArgumentException.class,
-                () -> authService.authenticate(TEST_USER_ID, "")
+                () -> authService.authenticate(TEST_USER_ID, "", TEST_ADDRESS)
         );
 
         assertThrows(
                 IllegalArgumentException.class,
-                () -> authService.authenticate("", TEST_PASSWORD)
+                () -> authService.authenticate("", TEST_PASSWORD, TEST_ADDRESS)
         );
 
         verifyNoInteractions(authenticationManager, jwtService);
@@ -98,12 +153,12 @@ class AuthServiceTest {
         // Execute & Verify
         assertThrows(
                 IllegalArgumentException.class,
-                () -> authService.authenticate(TEST_USER_ID, null)
+                () -> authService.authenticate(TEST_USER_ID, null, TEST_ADDRESS)
         );
 
         assertThrows(
                 IllegalArgumentException.class,
-                () -> authService.authenticate(null, TEST_PASSWORD)
+                () -> authService.authenticate(null, TEST_PASSWORD, TEST_ADDRESS)
         );
 
         verifyNoInteractions(authenticationManager, jwtService);
@@ -117,14 +172,14 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any())).thenReturn(mockAuth);
 
         String customToken = "custom.jwt.token";
-        when(jwtService.generateToken(TEST_USER_ID)).thenReturn(customToken);
+        when(jwtService.generateToken(eq(TEST_USER_ID), any())).thenReturn(customToken);
 
         // Execute
-        AuthResponse response = authService.authenticate(TEST_USER_ID, TEST_PASSWORD);
+        AuthResponse response = authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS);
 
         // Verify
         assertEquals(customToken, response.getToken());
-        verify(jwtService).generateToken(TEST_USER_ID);
+        verify(jwtService).generateToken(eq(TEST_USER_ID), any());
     }
 
     @Test
@@ -138,10 +193,10 @@ class AuthServiceTest {
                 ArgumentCaptor.forClass(UsernamePasswordAuthenticationToken.class);
 
         when(authenticationManager.authenticate(captor.capture())).thenReturn(mockAuth);
-        when(jwtService.generateToken(anyString())).thenReturn(TEST_TOKEN);
+        when(jwtService.generateToken(anyString(), any())).thenReturn(TEST_TOKEN);
 
         // Execute
-        authService.authenticate(TEST_USER_ID, TEST_PASSWORD);
+        authService.authenticate(TEST_USER_ID, TEST_PASSWORD, TEST_ADDRESS);
 
         // Verify authentication details
         UsernamePasswordAuthenticationToken authToken = captor.getValue();
@@ -149,4 +204,48 @@ class AuthServiceTest {
         assertEquals(TEST_PASSWORD, authToken.getCredentials());
         assertTrue(authToken.getAuthorities().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void refresh_IssuesNewPairWithoutPasswordCheck() {
+        // Setup
+        when(refreshTokenService.rotate(TEST_REFRESH_TOKEN))
+                .thenReturn(new RefreshTokenService.Rotation(TEST_USER_ID, "next-refresh-token"));
+        when(userDetailsService.loadUserByUsername(TEST_USER_ID))
+                .thenReturn(User.withUsername(TEST_USER_ID).password("hash").build());
+        when(jwtService.generateToken(eq(TEST_USER_ID), any())).thenReturn(TEST_TOKEN);
+
+        // Execute
+        AuthResponse response = authService.refresh(TEST_REFRESH_TOKEN);
+
+        // Verify
+        assertEquals(TEST_TOKEN, response.getToken());
+        assertEquals("next-refresh-token", response.getRefreshToken());
+        verifyNoInteractions(authenticationManager, loginThrottle);
+    }
+
+    @Test
+    void refresh_LockedUserIsRefused() {
+        // Setup
+        when(refreshTokenService.rotate(TEST_REFRESH_TOKEN))
+                .thenReturn(new RefreshTokenService.Rotation(TEST_USER_ID, "next-refresh-token"));
+        when(userDetailsService.loadUserByUsername(TEST_USER_ID))
+                .thenReturn(User.withUsername(TEST_USER_ID).password("hash").accountLocked(true).build());
+
+        // Execute & Verify
+        assertThrows(LockedException.class, () -> authService.refresh(TEST_REFRESH_TOKEN));
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    void refresh_DeletedUserIsRefused() {
+        // Setup
+        when(refreshTokenService.rotate(TEST_REFRESH_TOKEN))
+                .thenReturn(new RefreshTokenService.Rotation(TEST_USER_ID, "next-refresh-token"));
+        when(userDetailsService.loadUserByUsername(TEST_USER_ID))
+                .thenThrow(new UsernameNotFoundException("User not found: " + TEST_USER_ID));
+
+        // Execute & Verify
+        assertThrows(InvalidRefreshTokenException.class, () -> authService.refresh(TEST_REFRESH_TOKEN));
+        verifyNoInteractions(jwtService);
+    }
+}
@@ -1,6 +1,8 @@
 package com.eagle.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
@@ -8,16 +10,16 @@ import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,7 +28,6 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class JWTServiceTest {
 
-    @InjectMocks
     private JWTService jwtService;
 
     private final String SECRET = "mySuperSecretTestingKeyThatIsLongEnoughForHS512Algorithm";
@@ -35,9 +36,7 @@ class JWTServiceTest {
 
     @BeforeEach
     void setUp() {
-        // Inject values using Spring's test utility
-        ReflectionTestUtils.setField(jwtService, "secret", SECRET);
-        ReflectionTestUtils.setField(jwtService, "expiration", EXPIRATION);
+        jwtService = new JWTService(SECRET, EXPIRATION, 100);
     }
 
     @Test
@@ -178,6 +177,73 @@ class JWTServiceTest {
         assertEquals(key1, key2);
     }
 
+    @Test
+    void generateToken_AuthoritiesRoundTripThroughClaims() {
+        String token = jwtService.generateToken(USERNAME, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        Claims claims = jwtService.verify(token);
+
+        assertEquals(USERNAME, claims.getSubject());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER")), JWTService.authorities(claims));
+        assertEquals(List.of(), JWTService.authorities(jwtService.verify(createValidToken())));
+    }
+
+    @Test
+    void verify_RepeatedTokenIsServedFromCache() {
+        String token = createValidToken();
+
+        Claims first = jwtService.verify(token);
+        Claims second = jwtService.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, jwtService.getCacheMissCount());
+        assertEquals(1, jwtService.getCacheHitCount());
+    }
+
+    @Test
+    void verify_CachedTokenIsRejectedOnceExpired() throws InterruptedException {
+        String token = Jwts.builder()
+                .subject(USERNAME)
+                .expiration(Date.from(Instant.now().plusMillis(1500)))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .compact();
+        jwtService.verify(token);
+        assertEquals(1, jwtService.cacheSize());
+
+        Thread.sleep(1600);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(token));
+        assertEquals(0, jwtService.cacheSize());
+    }
+
+    @Test
+    void verify_InvalidTokensAreNotCached() {
+        String tampered = Jwts.builder()
+                .subject(USERNAME)
+                .expiration(Date.from(Instant.now().plusMillis(EXPIRATION)))
+                .signWith(Keys.hmacShaKeyFor("anotherSecretKeyThatIsLongEnoughForTheHS512Algorithm".getBytes()))
+                .compact();
+
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertThrows(JwtException.class, () -> jwtService.verify(tampered));
+        assertEquals(0, jwtService.cacheSize());
+    }
+
+    @Test
+    void verify_CacheIsBounded() {
+        JWTService bounded = new JWTService(SECRET, EXPIRATION, 2);
+        for (int i = 0; i < 5; i++) {
+            String token = Jwts.builder()
+                    .subject(USERNAME + i)
+                    .expiration(Date.from(Instant.now().plusMillis(EXPIRATION)))
+                    .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                    .compact();
+            assertEquals(USERNAME + i, bounded.verify(token).getSubject());
+        }
+
+        assertEquals(2, bounded.cacheSize());
+    }
+
     // Helper methods
     private String createValidToken() {
         return Jwts.builder()
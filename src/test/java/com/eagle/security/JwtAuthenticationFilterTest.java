@@ -1,5 +1,8 @@
 package com.eagle.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,11 +12,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 
@@ -23,6 +24,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,7 +47,7 @@ class JwtAuthenticationFilterTest {
     private JWTService jwtService;
 
     @Mock
-    private UserDetailsService userDetailsService;
+    private UserRevocationRegistry revocationRegistry;
 
     @InjectMocks
     private JwtAuthenticationFilter jwtAuthenticationFilter;
@@ -53,11 +55,7 @@ class JwtAuthenticationFilterTest {
     private final String VALID_JWT = "valid.jwt.token";
     private final String USERNAME = "user123";
     private final String BEARER_TOKEN = "Bearer " + VALID_JWT;
-    private final UserDetails userDetails = User.builder()
-            .username(USERNAME)
-            .password("password")
-            .authorities(Collections.emptyList())
-            .build();
+    private final List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
 
     @BeforeEach
     @AfterEach
@@ -72,7 +70,7 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userDetailsService);
+        verifyNoInteractions(jwtService, revocationRegistry);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
@@ -83,16 +81,14 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
-        verifyNoInteractions(jwtService, userDetailsService);
+        verifyNoInteractions(jwtService, revocationRegistry);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
     void doFilterInternal_ValidToken_SetsAuthentication() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUsername(VALID_JWT)).thenReturn(USERNAME);
-        when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(VALID_JWT, userDetails)).thenReturn(true);
+        when(jwtService.verify(VALID_JWT)).thenReturn(claims(USERNAME));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -110,16 +106,16 @@ class JwtAuthenticationFilterTest {
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Verify no new authentication was set
-        verify(jwtService, never()).extractUsername(anyString());
-        verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(jwtService, never()).verify(anyString());
+        verifyNoInteractions(revocationRegistry);
         verify(filterChain).doFilter(request, response);
     }
 
     @Test
-    void doFilterInternal_ValidTokenButInvalidUser_ContinuesWithoutAuthentication() throws ServletException, IOException {
+    void doFilterInternal_ValidTokenButRevokedUser_ContinuesWithoutAuthentication() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUsername(VALID_JWT)).thenReturn(USERNAME);
-        when(userDetailsService.loadUserByUsername(USERNAME)).thenThrow(new UsernameNotFoundException("User not found"));
+        when(jwtService.verify(VALID_JWT)).thenReturn(claims(USERNAME));
+        when(revocationRegistry.isRevoked(USERNAME)).thenReturn(true);
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -130,22 +126,19 @@ class JwtAuthenticationFilterTest {
     @Test
     void doFilterInternal_ValidTokenButInvalidJwt_ContinuesWithoutAuthentication() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUsername(VALID_JWT)).thenReturn(USERNAME);
-        when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(VALID_JWT, userDetails)).thenReturn(false);
+        when(jwtService.verify(VALID_JWT)).thenThrow(new MalformedJwtException("Invalid JWT"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(revocationRegistry);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 
     @Test
     void doFilterInternal_ValidTokenWithDetails_SetsRequestDetails() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn(BEARER_TOKEN);
-        when(jwtService.extractUsername(VALID_JWT)).thenReturn(USERNAME);
-        when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
-        when(jwtService.isTokenValid(VALID_JWT, userDetails)).thenReturn(true);
+        when(jwtService.verify(VALID_JWT)).thenReturn(claims(USERNAME));
         when(request.getRemoteAddr()).thenReturn("192.168.1.1");
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
@@ -157,17 +150,24 @@ class JwtAuthenticationFilterTest {
         assertInstanceOf(WebAuthenticationDetails.class, auth.getDetails());
     }
 
+    private static Claims claims(String subject) {
+        return Jwts.claims()
+                .subject(subject)
+                .add(JWTService.ROLES_CLAIM, List.of("ROLE_USER"))
+                .build();
+    }
+
     private void verifySecurityContextSet() {
         SecurityContext context = SecurityContextHolder.getContext();
         assertNotNull(context.getAuthentication());
         assertEquals(USERNAME, context.getAuthentication().getName());
         assertEquals(
-                userDetails.getAuthorities().size(),
+                authorities.size(),
                 context.getAuthentication().getAuthorities().size(),
                 "Authority sizes differ"
         );
         assertTrue(
-                context.getAuthentication().getAuthorities().containsAll(userDetails.getAuthorities()),
+                context.getAuthentication().getAuthorities().containsAll(authorities),
                 "Authorities content differs"
         );
     }
@@ -0,0 +1,57 @@
+package com.eagle.security;
+
+import com.eagle.exceptions.LoginThrottledException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    @Test
+    void check_UserIsThrottledAfterMaxFailures() {
+        LoginThrottle throttle = new LoginThrottle(3, 100, 300, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.check("usr-1", "10.0.0." + i);
+            throttle.recordFailure("usr-1", "10.0.0." + i);
+        }
+
+        LoginThrottledException ex = assertThrows(LoginThrottledException.class,
+                () -> throttle.check("usr-1", "10.0.0.9"));
+        assertTrue(ex.getRetryAfterSeconds() > 0 && ex.getRetryAfterSeconds() <= 300);
+        assertDoesNotThrow(() -> throttle.check("usr-2", "10.0.0.9"));
+        assertEquals(1, throttle.getThrottledCount());
+    }
+
+    @Test
+    void check_AddressIsThrottledAcrossUsers() {
+        LoginThrottle throttle = new LoginThrottle(100, 3, 300, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.recordFailure("usr-" + i, "10.0.0.1");
+        }
+
+        assertThrows(LoginThrottledException.class, () -> throttle.check("usr-9", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.check("usr-9", "10.0.0.2"));
+    }
+
+    @Test
+    void recordSuccess_ClearsUserButNotAddress() {
+        LoginThrottle throttle = new LoginThrottle(2, 2, 300, 1000);
+        throttle.recordFailure("usr-1", "10.0.0.1");
+        throttle.recordFailure("usr-1", "10.0.0.1");
+
+        throttle.recordSuccess("usr-1");
+
+        assertDoesNotThrow(() -> throttle.check("usr-1", "10.0.0.2"));
+        assertThrows(LoginThrottledException.class, () -> throttle.check("usr-1", "10.0.0.1"));
+    }
+
+    @Test
+    void check_WindowExpires() {
+        LoginThrottle throttle = new LoginThrottle(1, 1, 0, 1000);
+        throttle.recordFailure("usr-1", "10.0.0.1");
+
+        assertDoesNotThrow(() -> throttle.check("usr-1", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.eagle.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login hashing throughput for each BCrypt strength: every core hashes through the same
+ * {@link BoundedPasswordEncoder} the application uses, and the harness reports hashes per second
+ * in total and per core, plus the strength calibration would pick for the configured target.
+ * Run with {@code ./mvnw test -Dtest=PasswordHashingBenchmarkTest -Deagle.benchmark=true},
+ * optionally with {@code -Deagle.benchmark.bcrypt-strengths=10,11,12,13} and
+ * {@code -Deagle.benchmark.target-millis=100}.
+ */
+@EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+class PasswordHashingBenchmarkTest {
+
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final long MEASURE_NANOS = TimeUnit.SECONDS.toNanos(3);
+    private static final int[] STRENGTHS = Arrays.stream(
+            System.getProperty("eagle.benchmark.bcrypt-strengths", "10,11,12,13").split(","))
+            .map(String::trim).mapToInt(Integer::parseInt).toArray();
+    private static final long TARGET_MILLIS = Long.getLong("eagle.benchmark.target-millis", 100);
+
+    @Test
+    void hashesPerSecondPerStrength() throws Exception {
+        System.out.printf("%d cores; calibration picks strength %d for %d ms%n", CORES,
+                PasswordHashingPolicy.bcryptStrength(0, TARGET_MILLIS, 31), TARGET_MILLIS);
+        System.out.printf("%-10s %12s %14s %16s%n", "strength", "ms/hash", "hashes/sec", "hashes/sec/core");
+        for (int strength : STRENGTHS) {
+            run(strength);
+        }
+    }
+
+    private static void run(int strength) throws Exception {
+        PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(CORES, CORES);
+        PasswordEncoder encoder = new BoundedPasswordEncoder(PasswordHashingPolicy.encoder(strength), hashingExecutor);
+        String hash = encoder.encode("benchmark");
+        ExecutorService callers = Executors.newFixedThreadPool(CORES);
+        try {
+            long deadline = System.nanoTime() + MEASURE_NANOS;
+            long startedAt = System.nanoTime();
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < CORES; i++) {
+                Callable<Integer> login = () -> {
+                    int hashes = 0;
+                    // Always at least one hash, so a strength slower than the window is still measured.
+                    do {
+                        if (!encoder.matches("benchmark", hash)) {
+                            throw new IllegalStateException("Hash did not verify");
+                        }
+                        hashes++;
+                    } while (System.nanoTime() < deadline);
+                    return hashes;
+                };
+                results.add(callers.submit(login));
+            }
+            long hashes = 0;
+            for (Future<Integer> result : results) {
+                hashes += result.get();
+            }
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+            System.out.printf("%-10d %12.1f %14.1f %16.1f%n", strength,
+                    TimeUnit.NANOSECONDS.toMicros(hashingExecutor.getTotalHashNanos()) / 1000.0 / hashingExecutor.getHashCount(),
+                    hashes / seconds, hashes / seconds / CORES);
+        } finally {
+            callers.shutdownNow();
+            hashingExecutor.stop();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.eagle.security;
+
+import com.eagle.exceptions.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorTest {
+
+    private final PasswordHashingExecutor hashingExecutor = new PasswordHashingExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.stop();
+    }
+
+    @Test
+    void hash_RecordsHashTime() {
+        PasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), hashingExecutor);
+
+        String hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(3, hashingExecutor.getHashCount());
+        assertTrue(hashingExecutor.getTotalHashNanos() > 0);
+        assertEquals(0, hashingExecutor.getRejectionCount());
+    }
+
+    @Test
+    void hash_FullQueueIsRefusedWithoutWaiting() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> busy = callers.submit(() -> hashingExecutor.hash(() -> {
+                running.countDown();
+                await(release);
+                return "first";
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            Future<String> queued = callers.submit(() -> hashingExecutor.hash(() -> "second"));
+            while (hashingExecutor.getQueueDepth() == 0) {
+                Thread.sleep(1);
+            }
+
+            PasswordHashingBusyException ex = assertThrows(PasswordHashingBusyException.class,
+                    () -> hashingExecutor.hash(() -> "third"));
+            assertEquals(1, ex.getRetryAfterSeconds());
+            assertEquals(1, hashingExecutor.getRejectionCount());
+
+            release.countDown();
+            assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+            assertTrue(hashingExecutor.getTotalQueueWaitNanos() > 0);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void hash_FailurePropagatesToCaller() {
+        assertThrows(IllegalArgumentException.class, () -> hashingExecutor.hash(() -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
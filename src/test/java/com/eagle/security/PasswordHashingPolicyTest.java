@@ -0,0 +1,46 @@
+package com.eagle.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingPolicyTest {
+
+    @Test
+    void calibratedStrength_DoublesCostWhileWithinTarget() {
+        assertEquals(10, PasswordHashingPolicy.calibratedStrength(80, 100, 14));
+        assertEquals(11, PasswordHashingPolicy.calibratedStrength(50, 100, 14));
+        assertEquals(12, PasswordHashingPolicy.calibratedStrength(20, 100, 14));
+        assertEquals(14, PasswordHashingPolicy.calibratedStrength(1, 100_000, 14));
+        assertEquals(10, PasswordHashingPolicy.calibratedStrength(500, 100, 14));
+    }
+
+    @Test
+    void bcryptStrength_FixedStrengthSkipsCalibration() {
+        assertEquals(12, PasswordHashingPolicy.bcryptStrength(12, 1, 14));
+    }
+
+    @Test
+    void encoder_MatchesAndUpgradesLegacyHashes() {
+        PasswordEncoder encoder = PasswordHashingPolicy.encoder(4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    @Test
+    void encoder_UpgradesOnlyWeakerHashes() {
+        String weak = PasswordHashingPolicy.encoder(4).encode("secret");
+        PasswordEncoder stronger = PasswordHashingPolicy.encoder(5);
+        String current = stronger.encode("secret");
+
+        assertTrue(current.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(stronger.matches("secret", weak));
+        assertTrue(stronger.upgradeEncoding(weak));
+        assertFalse(stronger.upgradeEncoding(current));
+    }
+}
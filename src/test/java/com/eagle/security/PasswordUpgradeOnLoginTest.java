@@ -0,0 +1,44 @@
+package com.eagle.security;
+
+import com.eagle.entity.User;
+import com.eagle.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class PasswordUpgradeOnLoginTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void successfulLoginRehashesLegacyHash() {
+        String legacyHash = new BCryptPasswordEncoder(4).encode("Password123!");
+        User user = userRepository.save(new User(
+                "upgradeUser", new User.Address("1", "2", "3", "4", "5", "6"), "", "upgrade-" + UUID.randomUUID(), legacyHash));
+
+        authService.authenticate(user.getUserId(), "Password123!", "10.0.0.1");
+
+        String upgraded = userRepository.findByUserId(user.getUserId()).orElseThrow().getPasswordHash();
+        assertNotEquals(legacyHash, upgraded);
+        assertTrue(upgraded.startsWith("{bcrypt}"));
+        assertTrue(passwordEncoder.matches("Password123!", upgraded));
+        assertFalse(passwordEncoder.upgradeEncoding(upgraded));
+
+        authService.authenticate(user.getUserId(), "Password123!", "10.0.0.1");
+        assertEquals(upgraded, userRepository.findByUserId(user.getUserId()).orElseThrow().getPasswordHash());
+    }
+}
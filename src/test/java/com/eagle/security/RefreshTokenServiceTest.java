@@ -0,0 +1,88 @@
+package com.eagle.security;
+
+import com.eagle.entity.RefreshToken;
+import com.eagle.exceptions.InvalidRefreshTokenException;
+import com.eagle.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRevocationRegistry revocationRegistry;
+
+    @Test
+    void rotate_ReplacesTokenAndKeepsFamily() {
+        String userId = "refresh-" + UUID.randomUUID();
+        String first = refreshTokenService.issue(userId);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(first);
+
+        assertEquals(userId, rotation.userId());
+        assertNotEquals(first, rotation.refreshToken());
+        RefreshToken used = stored(first);
+        RefreshToken next = stored(rotation.refreshToken());
+        assertNotNull(used.getRotatedAt());
+        assertEquals(used.getFamilyId(), next.getFamilyId());
+        assertEquals(used.getFamilyExpiresAt(), next.getFamilyExpiresAt());
+        assertFalse(next.getExpiresAt().isBefore(used.getExpiresAt()));
+        assertNotEquals(first, used.getTokenHash());
+    }
+
+    @Test
+    void rotate_ReuseRevokesWholeFamily() {
+        String first = refreshTokenService.issue("refresh-" + UUID.randomUUID());
+        String second = refreshTokenService.rotate(first).refreshToken();
+        long reuses = refreshTokenService.getReuseCount();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(first));
+
+        assertEquals(reuses + 1, refreshTokenService.getReuseCount());
+        assertTrue(stored(second).isRevoked());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(second));
+    }
+
+    @Test
+    void rotate_UnknownTokenIsRefused() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("not-a-token"));
+    }
+
+    @Test
+    void rotate_ExpiredTokenIsRefused() {
+        RefreshTokenService expiring = new RefreshTokenService(refreshTokenRepository, revocationRegistry, 0, 3600, 100);
+        String token = expiring.issue("refresh-" + UUID.randomUUID());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> expiring.rotate(token));
+        assertEquals(0, expiring.cacheSize());
+        assertNull(stored(token).getRotatedAt());
+    }
+
+    @Test
+    void rotate_LockedUserIsRefused() {
+        String userId = "refresh-" + UUID.randomUUID();
+        String token = refreshTokenService.issue(userId);
+        revocationRegistry.locked(userId);
+        try {
+            assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+            assertTrue(stored(token).isRevoked());
+        } finally {
+            revocationRegistry.unlocked(userId);
+        }
+    }
+
+    private RefreshToken stored(String token) {
+        return refreshTokenRepository.findByTokenHash(JWTService.digest(token)).orElseThrow();
+    }
+}
@@ -0,0 +1,40 @@
+package com.eagle.security;
+
+import com.eagle.entity.User;
+import com.eagle.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class UserRevocationListenerTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserRevocationRegistry revocationRegistry;
+
+    @Test
+    void lockingUnlockingAndDeletingUpdateTheRegistry() {
+        User user = userRepository.save(new User(
+                "revocationUser", new User.Address("1", "2", "3", "4", "5", "6"), "", "revocation-" + UUID.randomUUID(), ""));
+        String userId = user.getUserId();
+        assertFalse(revocationRegistry.isRevoked(userId));
+
+        user.setLocked(true);
+        user = userRepository.save(user);
+        assertTrue(revocationRegistry.isRevoked(userId));
+
+        user.setLocked(false);
+        user = userRepository.save(user);
+        assertFalse(revocationRegistry.isRevoked(userId));
+
+        userRepository.delete(user);
+        assertTrue(revocationRegistry.isRevoked(userId));
+    }
+}
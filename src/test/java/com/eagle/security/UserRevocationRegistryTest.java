@@ -0,0 +1,54 @@
+package com.eagle.security;
+
+import com.eagle.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserRevocationRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Test
+    void load_LockedUsersAreRevoked() {
+        when(userRepository.findLockedUserIds()).thenReturn(List.of("usr-locked"));
+        UserRevocationRegistry registry = new UserRevocationRegistry(userRepository, 60_000);
+
+        registry.load();
+
+        assertTrue(registry.isRevoked("usr-locked"));
+        assertFalse(registry.isRevoked("usr-active"));
+    }
+
+    @Test
+    void unlocked_RestoresAccess() {
+        UserRevocationRegistry registry = new UserRevocationRegistry(userRepository, 60_000);
+
+        registry.locked("usr-1");
+        assertTrue(registry.isRevoked("usr-1"));
+        registry.unlocked("usr-1");
+
+        assertFalse(registry.isRevoked("usr-1"));
+    }
+
+    @Test
+    void deleted_RevokedForOneTokenLifetime() throws InterruptedException {
+        UserRevocationRegistry registry = new UserRevocationRegistry(userRepository, 50);
+
+        registry.deleted("usr-1");
+        assertTrue(registry.isRevoked("usr-1"));
+
+        Thread.sleep(60);
+        assertFalse(registry.isRevoked("usr-1"));
+        registry.deleted("usr-2");
+        assertEquals(1, registry.size());
+    }
+}
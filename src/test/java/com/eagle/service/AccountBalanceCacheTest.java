@@ -0,0 +1,86 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountResponse;
+import com.eagle.entity.AccountType;
+import com.eagle.entity.Currency;
+import com.eagle.entity.SortCode;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountBalanceCacheTest {
+
+    private static final String OWNER = "user-1";
+
+    @Test
+    void put_OlderVersionNeverReplacesNewer() {
+        AccountBalanceCache cache = new AccountBalanceCache(100, 60);
+
+        cache.put(OWNER, account("01000001", 20), 2, System.nanoTime());
+        cache.put(OWNER, account("01000001", 10), 1, System.nanoTime());
+
+        assertEquals(BigDecimal.valueOf(20), cache.get("01000001").account().getBalance());
+        assertEquals(1, cache.getStaleWriteCount());
+    }
+
+    @Test
+    void evict_TurnsAwayReadsThatStartedBeforeIt() {
+        AccountBalanceCache cache = new AccountBalanceCache(100, 60);
+        long slowReadStartedAt = System.nanoTime();
+
+        cache.evict("01000001");
+        cache.put(OWNER, account("01000001", 10), 1, slowReadStartedAt);
+        assertNull(cache.get("01000001"));
+
+        cache.put(OWNER, account("01000001", 30), 1, System.nanoTime());
+        assertEquals(BigDecimal.valueOf(30), cache.get("01000001").account().getBalance());
+    }
+
+    @Test
+    void get_ExpiredEntryIsAMiss() {
+        AccountBalanceCache cache = new AccountBalanceCache(100, 0);
+
+        cache.put(OWNER, account("01000001", 10), 1, System.nanoTime());
+
+        assertNull(cache.get("01000001"));
+        assertEquals(1, cache.getExpirationCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void put_OverCapacityEvictsOldestReads() {
+        AccountBalanceCache cache = new AccountBalanceCache(10, 60);
+        for (int i = 1; i <= 11; i++) {
+            cache.put(OWNER, account(String.format("010000%02d", i), i), 1, System.nanoTime());
+        }
+
+        assertEquals(10, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNull(cache.get("01000001"));
+        assertNotNull(cache.get("01000011"));
+    }
+
+    @Test
+    void getHitRatio_CountsHitsAndMisses() {
+        AccountBalanceCache cache = new AccountBalanceCache(100, 60);
+        assertEquals(0, cache.getHitRatio());
+
+        cache.get("01000001");
+        cache.put(OWNER, account("01000001", 10), 1, System.nanoTime());
+        cache.get("01000001");
+        cache.get("01000001");
+        cache.get("01000001");
+
+        assertEquals(3, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.75, cache.getHitRatio());
+    }
+
+    private static AccountResponse account(String accountNumber, long balance) {
+        return new AccountResponse(accountNumber, SortCode.Branch1.toString(), "Main", AccountType.personal,
+                BigDecimal.valueOf(balance), Currency.GBP, Instant.now(), Instant.now());
+    }
+}
@@ -0,0 +1,144 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountResponse;
+import com.eagle.dtos.ListAccountsResponse;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the SQL statements behind one page of GET /v1/accounts: the page is a single query
+ * whatever its size, and balances add at most one more for the stripes of the whole page.
+ */
+@SpringBootTest
+class AccountListingTest {
+
+    private static final int ACCOUNTS = 5;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StripedBalanceLedger stripedBalanceLedger;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private User otherUser;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        user = saveUser("lister");
+        otherUser = saveUser("other");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserId(), null, Collections.emptyList()));
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            accountRepository.save(new Account(user, "0150000" + i, SortCode.Branch1, "Account " + i,
+                    AccountType.personal, i * 10_000L, Currency.GBP));
+        }
+        accountRepository.save(new Account(otherUser, "01500009", SortCode.Branch1, "Not mine",
+                AccountType.personal, 0, Currency.GBP));
+        stripedBalanceLedger.enableStriping("01500002", 4);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        for (User owner : List.of(user, otherUser)) {
+            jdbcTemplate.update("DELETE FROM account_stripe WHERE account_id IN (SELECT account_id FROM account WHERE user_id = ?)",
+                    owner.getUserId());
+            jdbcTemplate.update("DELETE FROM account WHERE user_id = ?", owner.getUserId());
+            userRepository.deleteById(owner.getUserId());
+        }
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void list_OnePageIsOneStatement() {
+        ListAccountsResponse page = accountService.list(null, AccountService.DEFAULT_PAGE_SIZE, false);
+
+        assertEquals(List.of("01500001", "01500002", "01500003", "01500004", "01500005"), accountNumbers(page));
+        assertNull(page.getNextCursor());
+        assertTrue(page.getAccounts().stream().allMatch(account -> account.getBalance() == null));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void list_IncludeBalanceReadsAllStripesInOneStatement() {
+        ListAccountsResponse page = accountService.list(null, AccountService.DEFAULT_PAGE_SIZE, true);
+
+        List<BigDecimal> balances = page.getAccounts().stream().map(AccountResponse::getBalance).toList();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            assertEquals(0, BigDecimal.valueOf((i + 1) * 100L).compareTo(balances.get(i)));
+        }
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void list_KeysetWalkVisitsEveryAccountOnceWithOneStatementPerPage() {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            ListAccountsResponse page = accountService.list(cursor, 2, false);
+            seen.addAll(accountNumbers(page));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of("01500001", "01500002", "01500003", "01500004", "01500005"), seen);
+        assertEquals(3, pages);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+    }
+
+    private User saveUser(String name) {
+        return userRepository.save(new User(
+                name,
+                new User.Address("1", "2", "3", "4", "5", "6"),
+                "",
+                name + "-" + UUID.randomUUID(),
+                ""
+        ));
+    }
+
+    private static List<String> accountNumbers(ListAccountsResponse page) {
+        return page.getAccounts().stream().map(AccountResponse::getAccountNumber).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.eagle.service;
+
+import com.eagle.entity.AccountSequence;
+import com.eagle.entity.SortCode;
+import com.eagle.repository.AccountSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountNumberAllocatorTest {
+
+    @Mock
+    private AccountSequenceRepository accountSequenceRepository;
+
+    @Test
+    void next_OneSequenceCallPerBlock() {
+        AtomicLong sequence = new AtomicLong(1);
+        when(accountSequenceRepository.getNextSequenceValue())
+                .thenAnswer(invocation -> sequence.getAndAdd(AccountSequence.BLOCK_SIZE));
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountSequenceRepository);
+
+        for (int i = 1; i <= AccountSequence.BLOCK_SIZE * 2 + 1; i++) {
+            AccountNumberAllocator.AccountNumber number = allocator.next();
+            assertEquals(SortCode.Branch1, number.sortCode());
+            assertEquals(String.format("01%06d", i), number.accountNumber());
+        }
+
+        verify(accountSequenceRepository, times(3)).getNextSequenceValue();
+        assertEquals(3, allocator.getBlockCount());
+    }
+
+    @Test
+    void next_ContinuesInNextBranchAndSkipsZero() {
+        when(accountSequenceRepository.getNextSequenceValue()).thenReturn(999_901L);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountSequenceRepository);
+
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < AccountSequence.BLOCK_SIZE - 1; i++) {
+            numbers.add(allocator.next().accountNumber());
+        }
+
+        assertEquals("01999901", numbers.get(0));
+        assertEquals("01999999", numbers.get(numbers.size() - 1));
+        assertFalse(numbers.contains("02000000"));
+        assertEquals(SortCode.Branch2, AccountNumberAllocator.toAccountNumber(1_000_001).sortCode());
+        assertEquals("02000001", AccountNumberAllocator.toAccountNumber(1_000_001).accountNumber());
+        assertEquals("04999999", AccountNumberAllocator.toAccountNumber(3_999_999).accountNumber());
+    }
+
+    @Test
+    void next_ExhaustedAfterLastBranch() {
+        long capacity = (long) SortCode.values().length * SortCode.ACCOUNTS_PER_BRANCH;
+        when(accountSequenceRepository.getNextSequenceValue()).thenReturn(capacity);
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountSequenceRepository);
+
+        assertThrows(IllegalStateException.class, allocator::next);
+    }
+
+    @Test
+    void next_ConcurrentCallersGetDistinctNumbers() throws Exception {
+        AtomicLong sequence = new AtomicLong(1);
+        when(accountSequenceRepository.getNextSequenceValue())
+                .thenAnswer(invocation -> sequence.getAndAdd(AccountSequence.BLOCK_SIZE));
+        AccountNumberAllocator allocator = new AccountNumberAllocator(accountSequenceRepository);
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        int perThread = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(numbers.add(allocator.next().accountNumber()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, numbers.size());
+        assertEquals(threads * perThread / AccountSequence.BLOCK_SIZE, allocator.getBlockCount());
+    }
+}
@@ -5,9 +5,12 @@ import com.eagle.entity.AccountType;
 import com.eagle.entity.Currency;
 import com.eagle.entity.SortCode;
 import com.eagle.entity.User;
+import com.eagle.dtos.AccountResponse;
+import com.eagle.dtos.AccountView;
 import com.eagle.dtos.CreateAccountRequest;
+import com.eagle.dtos.ListAccountsResponse;
+import com.eagle.exceptions.AccountNotFoundException;
 import com.eagle.repository.AccountRepository;
-import com.eagle.repository.AccountSequenceRepository;
 import com.eagle.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,13 +18,19 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,7 +42,7 @@ import static org.mockito.Mockito.*;
 class AccountServiceTest {
 
     @Mock
-    private AccountSequenceRepository accountSequenceRepository;
+    private AccountNumberAllocator accountNumberAllocator;
 
     @Mock
     private AccountRepository accountRepository;
@@ -41,6 +50,12 @@ class AccountServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private StripedBalanceLedger stripedBalanceLedger;
+
+    @Spy
+    private AccountBalanceCache balanceCache = new AccountBalanceCache(100, 60);
+
     @InjectMocks
     private AccountService accountService;
 
@@ -67,7 +82,7 @@ class AccountServiceTest {
         CreateAccountRequest request = new CreateAccountRequest(TEST_ACCOUNT_NAME, TEST_ACCOUNT_TYPE);
         User mockUser = new User();
         when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(mockUser));
-        when(accountSequenceRepository.getNextSequenceValue()).thenReturn(123456L);
+        when(accountNumberAllocator.next()).thenReturn(AccountNumberAllocator.toAccountNumber(123456L));
         when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // Execute
@@ -79,12 +94,12 @@ class AccountServiceTest {
         assertEquals(TEST_ACCOUNT_TYPE, result.getAccountType());
         assertEquals(Currency.GBP, result.getCurrency());
         assertEquals(SortCode.Branch1.toString(), result.getSortCode());
-        assertEquals(BigDecimal.ZERO, result.getBalance());
+        assertEquals(0, result.getBalance());
         assertEquals("01123456", result.getAccountNumber());
         assertEquals(mockUser, result.getUser());
 
         verify(userRepository).findByUserId(TEST_USER_ID);
-        verify(accountSequenceRepository).getNextSequenceValue();
+        verify(accountNumberAllocator).next();
         verify(accountRepository).save(any(Account.class));
     }
 
@@ -100,7 +115,7 @@ class AccountServiceTest {
 
         assertEquals("User was not found ID: " + TEST_USER_ID, exception.getMessage());
         verify(userRepository).findByUserId(TEST_USER_ID);
-        verifyNoInteractions(accountSequenceRepository, accountRepository);
+        verifyNoInteractions(accountNumberAllocator, accountRepository);
     }
 
     @Test
@@ -109,14 +124,14 @@ class AccountServiceTest {
         CreateAccountRequest request = new CreateAccountRequest(TEST_ACCOUNT_NAME, TEST_ACCOUNT_TYPE);
         User mockUser = new User();
         when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(mockUser));
-        when(accountSequenceRepository.getNextSequenceValue()).thenReturn(1000000L);
+        when(accountNumberAllocator.next()).thenThrow(new IllegalStateException("Account numbers exhausted"));
 
         // Execute & Verify
         assertThrows(IllegalStateException.class,
                 () -> accountService.create(request));
 
         verify(userRepository).findByUserId(TEST_USER_ID);
-        verify(accountSequenceRepository).getNextSequenceValue();
+        verify(accountNumberAllocator).next();
         verifyNoInteractions(accountRepository);
     }
 
@@ -131,15 +146,92 @@ class AccountServiceTest {
         testSequenceFormatting(mockUser, 999999L, "01999999");
         testSequenceFormatting(mockUser, 42L, "01000042");
         testSequenceFormatting(mockUser, 9999L, "01009999");
+        testSequenceFormatting(mockUser, 1_000_001L, "02000001");
     }
 
     private void testSequenceFormatting(User user, Long sequence, String expectedAccountNumber) {
         when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(user));
-        when(accountSequenceRepository.getNextSequenceValue()).thenReturn(sequence);
+        when(accountNumberAllocator.next()).thenReturn(AccountNumberAllocator.toAccountNumber(sequence));
         when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Account result = accountService.create(new CreateAccountRequest(TEST_ACCOUNT_NAME, TEST_ACCOUNT_TYPE));
 
         assertEquals(expectedAccountNumber, result.getAccountNumber());
     }
-}
\ No newline at end of file
+
+    @Test
+    void get_SecondReadIsServedFromCache() {
+        AccountView account = storedAccount(TEST_USER_ID, 0);
+        when(accountRepository.findViewByAccountNumber("01000001")).thenReturn(Optional.of(account));
+        when(stripedBalanceLedger.balanceOf(account)).thenReturn(2_500L);
+
+        AccountResponse first = accountService.get("01000001");
+        AccountResponse second = accountService.get("01000001");
+
+        assertEquals(0, first.getBalance().compareTo(new BigDecimal("25.00")));
+        assertSame(first, second);
+        verify(accountRepository, times(1)).findViewByAccountNumber("01000001");
+        assertEquals(1, balanceCache.getHitCount());
+    }
+
+    @Test
+    void get_CachedAccountStillChecksOwner() {
+        balanceCache.put("someone-else", AccountService.toResponse(storedAccount("someone-else", 0), 0L), 1, System.nanoTime());
+
+        assertThrows(AccessDeniedException.class, () -> accountService.get("01000001"));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void get_StripedAccountIsNotCached() {
+        AccountView account = storedAccount(TEST_USER_ID, 4);
+        when(accountRepository.findViewByAccountNumber("01000001")).thenReturn(Optional.of(account));
+
+        accountService.get("01000001");
+        accountService.get("01000001");
+
+        verify(accountRepository, times(2)).findViewByAccountNumber("01000001");
+        verify(stripedBalanceLedger, times(2)).balanceOf(account);
+    }
+
+    @Test
+    void get_AccountNotFound() {
+        when(accountRepository.findViewByAccountNumber("01000001")).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class, () -> accountService.get("01000001"));
+    }
+
+    @Test
+    void list_FetchesOneExtraRowToFindTheNextPage() {
+        AccountView first = storedAccount(TEST_USER_ID, 0);
+        AccountView second = new AccountView("acc-2", TEST_USER_ID, "01000002", SortCode.Branch1.toString(), TEST_ACCOUNT_NAME,
+                TEST_ACCOUNT_TYPE, 0L, Currency.GBP, Instant.now(), Instant.now(), 0, 0);
+        when(accountRepository.findOwned(TEST_USER_ID, Limit.of(2))).thenReturn(List.of(first, second));
+
+        ListAccountsResponse page = accountService.list(null, 1, false);
+
+        assertEquals(1, page.getAccounts().size());
+        assertNull(page.getAccounts().get(0).getBalance());
+        assertEquals(new TransactionCursor(first.createdTimestamp(), first.id()), TransactionCursor.decode(page.getNextCursor()));
+        verifyNoInteractions(stripedBalanceLedger);
+    }
+
+    @Test
+    void list_WithCursorAndBalances() {
+        Instant timestamp = Instant.parse("2025-01-01T10:15:30.123456Z");
+        AccountView account = storedAccount(TEST_USER_ID, 0);
+        when(accountRepository.findOwnedAfter(TEST_USER_ID, timestamp, "acc-0", Limit.of(AccountService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(account));
+        when(stripedBalanceLedger.balancesOf(List.of(account))).thenReturn(Map.of("acc-1", 1_050L));
+
+        ListAccountsResponse page = accountService.list(new TransactionCursor(timestamp, "acc-0").encode(), 1_000, true);
+
+        assertEquals(0, page.getAccounts().get(0).getBalance().compareTo(new BigDecimal("10.50")));
+        assertNull(page.getNextCursor());
+    }
+
+    private AccountView storedAccount(String userId, int stripes) {
+        return new AccountView("acc-1", userId, "01000001", SortCode.Branch1.toString(), TEST_ACCOUNT_NAME,
+                TEST_ACCOUNT_TYPE, 0L, Currency.GBP, Instant.now(), Instant.now(), stripes, 3);
+    }
+}
@@ -0,0 +1,177 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.SubmissionResponse;
+import com.eagle.dtos.SubmissionStatus;
+import com.eagle.dtos.TransactionResponse;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.exceptions.SubmissionNotFoundException;
+import com.eagle.exceptions.SubmissionQueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncTransactionServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+    private static final String USER_ID = "usr-1";
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private AsyncTransactionService asyncTransactionService;
+    private CreateTransactionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        asyncTransactionService = new AsyncTransactionService(idempotencyService, 1, 1, 3600, 100, false);
+        authenticate(USER_ID);
+        request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.GBP);
+        request.setType(TransactionType.deposit);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        SecurityContextHolder.clearContext();
+        asyncTransactionService.stop();
+    }
+
+    @Test
+    void submit_PostsOnShardThreadAsSubmittingUser() throws Exception {
+        AtomicReference<String> postedBy = new AtomicReference<>();
+        when(idempotencyService.post(ACCOUNT_NUMBER, request, "key-1")).thenAnswer(invocation -> {
+            postedBy.set(SecurityContextHolder.getContext().getAuthentication().getName());
+            return new IdempotencyService.Outcome(response("tan-1"), false);
+        });
+
+        AsyncTransactionService.Submission submission = asyncTransactionService.submit(ACCOUNT_NUMBER, request, "key-1");
+        SubmissionResponse finished = submission.done().get(5, TimeUnit.SECONDS).toResponse();
+
+        assertEquals(SubmissionStatus.applied, finished.getStatus());
+        assertEquals("tan-1", finished.getTransaction().getTransactionId());
+        assertEquals(USER_ID, postedBy.get());
+        assertSame(submission, asyncTransactionService.find(ACCOUNT_NUMBER, submission.getTrackingId()));
+    }
+
+    @Test
+    void submit_RejectionIsReportedAsStatus() throws Exception {
+        when(idempotencyService.post(ACCOUNT_NUMBER, request, null))
+                .thenThrow(new InsufficientFundsException("Insufficient balance"));
+
+        AsyncTransactionService.Submission submission = asyncTransactionService.submit(ACCOUNT_NUMBER, request, null);
+        SubmissionResponse finished = submission.done().get(5, TimeUnit.SECONDS).toResponse();
+
+        assertEquals(SubmissionStatus.insufficient_funds, finished.getStatus());
+        assertNull(finished.getTransaction());
+    }
+
+    @Test
+    void submit_ConflictFinishesAtOnceWithoutBackingOffOnTheShard() throws Exception {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(5, 1000, 1000, 10);
+        AtomicInteger attempts = new AtomicInteger();
+        when(idempotencyService.post(ACCOUNT_NUMBER, request, null)).thenAnswer(invocation ->
+                policy.execute(ACCOUNT_NUMBER, () -> {
+                    attempts.incrementAndGet();
+                    throw new OptimisticLockingFailureException("version changed");
+                }));
+
+        AsyncTransactionService.Submission submission = asyncTransactionService.submit(ACCOUNT_NUMBER, request, null);
+        SubmissionResponse finished = submission.done().get(500, TimeUnit.MILLISECONDS).toResponse();
+
+        assertEquals(SubmissionStatus.conflict, finished.getStatus());
+        assertEquals(1, attempts.get());
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    @Test
+    void submit_FullQueueIsRefused() throws Exception {
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(idempotencyService.post(any(), any(), isNull())).thenAnswer(invocation -> {
+            posting.countDown();
+            release.await();
+            return new IdempotencyService.Outcome(response("tan-1"), false);
+        });
+
+        AsyncTransactionService.Submission running = asyncTransactionService.submit(ACCOUNT_NUMBER, request, null);
+        assertTrue(posting.await(5, TimeUnit.SECONDS));
+        AsyncTransactionService.Submission queued = asyncTransactionService.submit(ACCOUNT_NUMBER, request, null);
+        assertEquals(SubmissionStatus.pending, queued.toResponse().getStatus());
+
+        assertThrows(SubmissionQueueFullException.class,
+                () -> asyncTransactionService.submit(ACCOUNT_NUMBER, request, null));
+        assertEquals(1, asyncTransactionService.getRejectionCount());
+
+        release.countDown();
+        assertEquals(SubmissionStatus.applied, running.done().get(5, TimeUnit.SECONDS).toResponse().getStatus());
+        assertEquals(SubmissionStatus.applied, queued.done().get(5, TimeUnit.SECONDS).toResponse().getStatus());
+    }
+
+    @Test
+    void find_IsScopedToAccountAndUser() throws Exception {
+        when(idempotencyService.post(ACCOUNT_NUMBER, request, null))
+                .thenReturn(new IdempotencyService.Outcome(response("tan-1"), false));
+        AsyncTransactionService.Submission submission = asyncTransactionService.submit(ACCOUNT_NUMBER, request, null);
+        submission.done().get(5, TimeUnit.SECONDS);
+
+        assertThrows(SubmissionNotFoundException.class,
+                () -> asyncTransactionService.find("01000002", submission.getTrackingId()));
+        assertThrows(SubmissionNotFoundException.class,
+                () -> asyncTransactionService.find(ACCOUNT_NUMBER, "unknown"));
+        authenticate("usr-other");
+        assertThrows(AccessDeniedException.class,
+                () -> asyncTransactionService.find(ACCOUNT_NUMBER, submission.getTrackingId()));
+    }
+
+    @Test
+    void submit_FinishedSubmissionsAreBounded() throws Exception {
+        when(idempotencyService.post(ACCOUNT_NUMBER, request, null))
+                .thenReturn(new IdempotencyService.Outcome(response("tan-1"), false));
+        AsyncTransactionService bounded = new AsyncTransactionService(idempotencyService, 1, 10, 3600, 2, true);
+        try {
+            AsyncTransactionService.Submission first = bounded.submit(ACCOUNT_NUMBER, request, null);
+            first.done().get(5, TimeUnit.SECONDS);
+            bounded.submit(ACCOUNT_NUMBER, request, null).done().get(5, TimeUnit.SECONDS);
+            bounded.submit(ACCOUNT_NUMBER, request, null).done().get(5, TimeUnit.SECONDS);
+            bounded.submit(ACCOUNT_NUMBER, request, null);
+
+            assertThrows(SubmissionNotFoundException.class, () -> bounded.find(ACCOUNT_NUMBER, first.getTrackingId()));
+        } finally {
+            bounded.stop();
+        }
+    }
+
+    private static void authenticate(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
+    private static TransactionResponse response(String id) {
+        return new TransactionResponse(id, BigDecimal.TEN, Currency.GBP, TransactionType.deposit, Instant.now());
+    }
+}
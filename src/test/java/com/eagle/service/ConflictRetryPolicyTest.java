@@ -0,0 +1,130 @@
+package com.eagle.service;
+
+import com.eagle.exceptions.AccountBusyException;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryPolicyTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+
+    @Test
+    void execute_RetriesConflictsUntilSuccess() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(5, 1, 5, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = policy.execute(ACCOUNT_NUMBER, () -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new OptimisticLockingFailureException("version changed");
+            }
+            if (calls.get() == 2) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, policy.getConflictCount());
+        assertEquals(2, policy.getRetryCount());
+        assertEquals(0, policy.getExhaustedCount());
+    }
+
+    @Test
+    void withoutBackoff_FailsOnFirstConflict() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(5, 1000, 1000, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConcurrentTransactionException.class, () -> ConflictRetryPolicy.withoutBackoff(
+                () -> policy.execute(ACCOUNT_NUMBER, () -> {
+                    calls.incrementAndGet();
+                    throw new OptimisticLockingFailureException("version changed");
+                })));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, policy.getConflictCount());
+        assertEquals(0, policy.getRetryCount());
+        assertEquals("ok", policy.execute(ACCOUNT_NUMBER, () -> "ok"));
+    }
+
+    @Test
+    void execute_GivesUpAfterMaxAttemptsWithRetryAfter() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(3, 1, 2500, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        ConcurrentTransactionException ex = assertThrows(ConcurrentTransactionException.class,
+                () -> policy.execute(ACCOUNT_NUMBER, () -> {
+                    calls.incrementAndGet();
+                    throw new ConcurrentTransactionException("conflict");
+                }));
+
+        assertFalse(ex instanceof AccountBusyException);
+        assertEquals(3, ex.getRetryAfterSeconds());
+        assertEquals(3, calls.get());
+        assertEquals(1, policy.getExhaustedCount());
+    }
+
+    @Test
+    void execute_FailsFastOnceAccountBudgetIsSpent() throws Exception {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(100, 1, 1, 1);
+        CountDownLatch firstConflict = new CountDownLatch(1);
+        CountDownLatch firstIsRetrying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> first = executor.submit(() -> policy.execute(ACCOUNT_NUMBER, () -> {
+            if (firstConflict.getCount() == 1) {
+                firstConflict.countDown();
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            firstIsRetrying.countDown();
+            awaitQuietly(release);
+            return "ok";
+        }));
+        assertTrue(firstIsRetrying.await(5, TimeUnit.SECONDS));
+
+        assertThrows(AccountBusyException.class, () -> policy.execute(ACCOUNT_NUMBER, () -> {
+            throw new CannotAcquireLockException("lock timeout");
+        }));
+        // The budget is per account, so others are unaffected.
+        assertEquals("other", policy.execute("01000002", () -> "other"));
+
+        release.countDown();
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(1, policy.getBudgetRejectionCount());
+    }
+
+    @Test
+    void execute_DoesNotRetryBusinessFailures() {
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(5, 1, 5, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(InsufficientFundsException.class, () -> policy.execute(ACCOUNT_NUMBER, () -> {
+            calls.incrementAndGet();
+            throw new InsufficientFundsException("Insufficient funds");
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(0, policy.getConflictCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
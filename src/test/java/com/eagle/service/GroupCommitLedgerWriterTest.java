@@ -0,0 +1,114 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitLedgerWriterTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    private GroupCommitLedgerWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user123", null));
+        writer = new GroupCommitLedgerWriter(transactionService, 1000, 50, 20);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void submit_ConcurrentWritesShareCommits() throws Exception {
+        when(transactionService.commitGroup(anyList())).thenAnswer(invocation -> {
+            List<LedgerCommand> commands = invocation.getArgument(0);
+            return commands.stream().map(command -> {
+                assertEquals("user123", command.userId());
+                Transaction transaction = new Transaction();
+                transaction.setReference(command.request().getReference());
+                return LedgerOutcome.applied(transaction);
+            }).toList();
+        });
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(20));
+        List<Future<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String reference = "ref-" + i;
+            futures.add(executor.submit(() -> writer.post("01000001", request(reference))));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals("ref-" + i, futures.get(i).get(10, TimeUnit.SECONDS).getReference());
+        }
+        executor.shutdown();
+
+        assertEquals(200, writer.getWriteCount());
+        assertTrue(writer.getCommitCount() < 200, "Expected coalesced commits, got " + writer.getCommitCount());
+    }
+
+    @Test
+    void submit_RejectionIsRethrownToCaller() {
+        when(transactionService.commitGroup(anyList()))
+                .thenReturn(List.of(LedgerOutcome.rejected(new InsufficientFundsException("Insufficient balance"))));
+
+        assertThrows(InsufficientFundsException.class, () -> writer.post("01000001", request("r")));
+    }
+
+    @Test
+    void commit_FailedGroupIsRetriedIndividually() throws Exception {
+        when(transactionService.commitGroup(anyList())).thenAnswer(invocation -> {
+            List<LedgerCommand> commands = invocation.getArgument(0);
+            if (commands.stream().anyMatch(c -> c.request().getReference().equals("poison"))) {
+                throw new DataIntegrityViolationException("constraint");
+            }
+            return commands.stream().map(c -> LedgerOutcome.applied(new Transaction())).toList();
+        });
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(4));
+        Future<Transaction> good1 = executor.submit(() -> writer.post("01000001", request("a")));
+        Future<Transaction> poison = executor.submit(() -> writer.post("01000001", request("poison")));
+        Future<Transaction> good2 = executor.submit(() -> writer.post("01000001", request("b")));
+
+        assertNotNull(good1.get(10, TimeUnit.SECONDS));
+        assertNotNull(good2.get(10, TimeUnit.SECONDS));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> poison.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, ex.getCause());
+        executor.shutdown();
+    }
+
+    private CreateTransactionRequest request(String reference) {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.GBP);
+        request.setType(TransactionType.deposit);
+        request.setReference(reference);
+        return request;
+    }
+}
@@ -0,0 +1,252 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.IdempotencyRecord;
+import com.eagle.dtos.TransactionResponse;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Currency;
+import com.eagle.entity.Transaction;
+import com.eagle.exceptions.IdempotencyKeyReuseException;
+import com.eagle.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "01000001";
+    private static final String USER_ID = "usr-1";
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private IdempotencyService idempotencyService;
+    private CreateTransactionRequest request;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(ledgerEngine, transactionRepository, 100, 3600);
+        authenticate(USER_ID);
+        request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.GBP);
+        request.setType(TransactionType.deposit);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void post_RepeatedKeyIsAnsweredFromIndex() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1")).thenReturn(Optional.empty());
+        when(ledgerEngine.post(ACCOUNT_NUMBER, request, "key-1")).thenReturn(transaction("tan-1"));
+
+        IdempotencyService.Outcome first = idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+        IdempotencyService.Outcome second = idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals("tan-1", second.response().getTransactionId());
+        verify(ledgerEngine, times(1)).post(any(), any(), any());
+        verify(transactionRepository, times(1)).findIdempotencyRecord(any(), any());
+        assertEquals(1, idempotencyService.getReplayCount());
+    }
+
+    @Test
+    void post_KeyMissingFromIndexFallsBackToDatabase() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1"))
+                .thenReturn(Optional.of(stored(USER_ID, "tan-1")));
+
+        IdempotencyService.Outcome outcome = idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+
+        assertTrue(outcome.replayed());
+        assertEquals("tan-1", outcome.response().getTransactionId());
+        verifyNoInteractions(ledgerEngine);
+    }
+
+    @Test
+    void post_KeysAreScopedToAccount() {
+        when(transactionRepository.findIdempotencyRecord(anyString(), eq("key-1"))).thenReturn(Optional.empty());
+        when(ledgerEngine.post(anyString(), eq(request), eq("key-1")))
+                .thenReturn(transaction("tan-1"), transaction("tan-2"));
+
+        idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+        IdempotencyService.Outcome other = idempotencyService.post("01000002", request, "key-1");
+
+        assertFalse(other.replayed());
+        assertEquals("tan-2", other.response().getTransactionId());
+    }
+
+    @Test
+    void post_ReplayForAnotherUserIsDenied() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1"))
+                .thenReturn(Optional.of(stored("usr-other", "tan-1")));
+
+        assertThrows(AccessDeniedException.class, () -> idempotencyService.post(ACCOUNT_NUMBER, request, "key-1"));
+        verifyNoInteractions(ledgerEngine);
+    }
+
+    @Test
+    void post_ReusedKeyWithDifferentRequestIsRefused() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1")).thenReturn(Optional.empty());
+        when(ledgerEngine.post(ACCOUNT_NUMBER, request, "key-1")).thenReturn(transaction("tan-1"));
+        idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+
+        CreateTransactionRequest larger = copy(request);
+        larger.setAmount(BigDecimal.valueOf(20));
+        CreateTransactionRequest withdrawal = copy(request);
+        withdrawal.setType(TransactionType.withdraw);
+        CreateTransactionRequest referenced = copy(request);
+        referenced.setReference("rent");
+
+        for (CreateTransactionRequest different : List.of(larger, withdrawal, referenced)) {
+            assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.post(ACCOUNT_NUMBER, different, "key-1"));
+        }
+        CreateTransactionRequest rescaled = copy(request);
+        rescaled.setAmount(new BigDecimal("10.00"));
+        assertTrue(idempotencyService.post(ACCOUNT_NUMBER, rescaled, "key-1").replayed());
+        verify(ledgerEngine, times(1)).post(any(), any(), any());
+    }
+
+    @Test
+    void post_ReusedKeyFromDatabaseWithDifferentReferenceIsRefused() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1"))
+                .thenReturn(Optional.of(stored(USER_ID, "tan-1")));
+        request.setReference("rent");
+
+        assertThrows(IdempotencyKeyReuseException.class, () -> idempotencyService.post(ACCOUNT_NUMBER, request, "key-1"));
+        verifyNoInteractions(ledgerEngine);
+    }
+
+    @Test
+    void post_WithoutKeyAlwaysPosts() {
+        when(ledgerEngine.post(ACCOUNT_NUMBER, request)).thenReturn(transaction("tan-1"), transaction("tan-2"));
+
+        assertFalse(idempotencyService.post(ACCOUNT_NUMBER, request, null).replayed());
+        assertFalse(idempotencyService.post(ACCOUNT_NUMBER, request, " ").replayed());
+
+        verify(ledgerEngine, times(2)).post(ACCOUNT_NUMBER, request);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void post_UniqueViolationReplaysTheWinningRequest() {
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(stored(USER_ID, "tan-winner")));
+        when(ledgerEngine.post(ACCOUNT_NUMBER, request, "key-1"))
+                .thenThrow(new DataIntegrityViolationException("uk_transaction_account_idempotency_key"));
+
+        IdempotencyService.Outcome outcome = idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+
+        assertTrue(outcome.replayed());
+        assertEquals("tan-winner", outcome.response().getTransactionId());
+    }
+
+    @Test
+    void post_ConcurrentDuplicateWaitsForFirstRequest() throws Exception {
+        CountDownLatch posting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(transactionRepository.findIdempotencyRecord(ACCOUNT_NUMBER, "key-1")).thenReturn(Optional.empty());
+        when(ledgerEngine.post(ACCOUNT_NUMBER, request, "key-1")).thenAnswer(invocation -> {
+            posting.countDown();
+            release.await();
+            return transaction("tan-1");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyService.Outcome> first = executor.submit(() -> {
+                authenticate(USER_ID);
+                return idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+            });
+            assertTrue(posting.await(5, TimeUnit.SECONDS));
+            Future<IdempotencyService.Outcome> duplicate = executor.submit(() -> {
+                authenticate(USER_ID);
+                return idempotencyService.post(ACCOUNT_NUMBER, request, "key-1");
+            });
+            Thread.sleep(50);
+            release.countDown();
+
+            assertFalse(first.get(5, TimeUnit.SECONDS).replayed());
+            assertTrue(duplicate.get(5, TimeUnit.SECONDS).replayed());
+            assertEquals("tan-1", duplicate.get().response().getTransactionId());
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(ledgerEngine, times(1)).post(any(), any(), any());
+    }
+
+    @Test
+    void post_IndexIsBoundedAndExpires() throws Exception {
+        when(transactionRepository.findIdempotencyRecord(eq(ACCOUNT_NUMBER), anyString())).thenReturn(Optional.empty());
+        when(ledgerEngine.post(eq(ACCOUNT_NUMBER), eq(request), anyString())).thenReturn(transaction("tan-1"));
+
+        for (int i = 0; i < 150; i++) {
+            idempotencyService.post(ACCOUNT_NUMBER, request, "key-" + i);
+        }
+        assertEquals(100, idempotencyService.indexSize());
+        clearInvocations(transactionRepository);
+
+        IdempotencyService expiring = new IdempotencyService(ledgerEngine, transactionRepository, 100, 0);
+        expiring.post(ACCOUNT_NUMBER, request, "key-0");
+        Thread.sleep(1);
+        expiring.post(ACCOUNT_NUMBER, request, "key-0");
+        verify(transactionRepository, times(2)).findIdempotencyRecord(ACCOUNT_NUMBER, "key-0");
+    }
+
+    private static void authenticate(String userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
+    private static CreateTransactionRequest copy(CreateTransactionRequest request) {
+        CreateTransactionRequest copy = new CreateTransactionRequest();
+        copy.setAmount(request.getAmount());
+        copy.setCurrency(request.getCurrency());
+        copy.setType(request.getType());
+        copy.setReference(request.getReference());
+        return copy;
+    }
+
+    private static Transaction transaction(String id) {
+        Transaction transaction = new Transaction(null, TransactionType.deposit, Currency.GBP, 1000, null);
+        transaction.setId(id);
+        transaction.setTimestamp(Instant.now());
+        return transaction;
+    }
+
+    private static IdempotencyRecord stored(String userId, String transactionId) {
+        return new IdempotencyRecord(userId,
+                new TransactionResponse(transactionId, BigDecimal.TEN, Currency.GBP, TransactionType.deposit, Instant.now()), null);
+    }
+}
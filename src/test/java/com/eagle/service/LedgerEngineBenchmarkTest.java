@@ -0,0 +1,145 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.journal.FsyncPolicy;
+import com.eagle.journal.LedgerJournalFactory;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.LedgerJdbcRepository;
+import com.eagle.repository.TransactionRepository;
+import com.eagle.repository.UserRepository;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Throughput of the ledger engines on a single hot account.
+ * Run with {@code ./mvnw test -Dtest=LedgerEngineBenchmarkTest -Deagle.benchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+public class LedgerEngineBenchmarkTest {
+
+    private static final String HOT_ACCOUNT = "01900001";
+    private static final int THREADS = 64;
+    private static final int OPERATIONS = 20_000;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ConflictRetryPolicy conflictRetryPolicy;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AccountBalanceCache balanceCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path journalDir;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User(
+                "benchUser", new User.Address("1", "2", "3", "4", "5", "6"), "", "bench-" + UUID.randomUUID(), ""));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserId(), null, Collections.emptyList()));
+        account = accountRepository.save(new Account(
+                user, HOT_ACCOUNT, SortCode.Branch1, "Hot", AccountType.personal, 500_000, Currency.GBP));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transaction WHERE account_id = ?", account.getId());
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(account.getUser().getUserId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compareEngines() throws Exception {
+        LedgerEngine jpa = new JpaLedgerEngine(transactionService, conflictRetryPolicy);
+        LedgerJournalFactory journalFactory = new LedgerJournalFactory(journalDir.toString(), 64, FsyncPolicy.Mode.always, 0, 1);
+        ShardedLedgerEngine sharded = new ShardedLedgerEngine(accountRepository, transactionRepository, ledgerJdbcRepository,
+                validator, balanceCache, journalFactory, Runtime.getRuntime().availableProcessors(), 100_000, 500, 100_000);
+        sharded.start();
+        try {
+            run("warm-up jpa", jpa, OPERATIONS / 10);
+            double jpaTps = run("jpa", jpa, OPERATIONS);
+            run("warm-up sharded", sharded, OPERATIONS / 10);
+            double shardedTps = run("sharded", sharded, OPERATIONS);
+            System.out.printf("Sharded engine is %.1fx the JPA path on one hot account%n", shardedTps / jpaTps);
+        } finally {
+            sharded.stop();
+        }
+    }
+
+    private double run(String label, LedgerEngine engine, int operations) throws Exception {
+        CreateTransactionRequest deposit = request(TransactionType.deposit);
+        CreateTransactionRequest withdraw = request(TransactionType.withdraw);
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(THREADS));
+        long[] latencies = new long[operations];
+        List<Future<?>> futures = new ArrayList<>(operations);
+        long start = System.nanoTime();
+        for (int i = 0; i < operations; i++) {
+            int n = i;
+            futures.add(executor.submit(() -> {
+                long t0 = System.nanoTime();
+                engine.post(HOT_ACCOUNT, n % 2 == 0 ? deposit : withdraw);
+                latencies[n] = System.nanoTime() - t0;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+        Arrays.sort(latencies);
+        double tps = operations / seconds;
+        System.out.printf("%-16s %8d ops %9.0f tx/s  p50 %6.2f ms  p99 %6.2f ms%n", label, operations, tps,
+                latencies[operations / 2] / 1e6, latencies[(int) (operations * 0.99)] / 1e6);
+        return tps;
+    }
+
+    private CreateTransactionRequest request(TransactionType type) {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.ONE);
+        request.setCurrency(Currency.GBP);
+        request.setType(type);
+        return request;
+    }
+}
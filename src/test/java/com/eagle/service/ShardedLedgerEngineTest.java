@@ -0,0 +1,347 @@
+package com.eagle.service;
+
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.journal.FsyncPolicy;
+import com.eagle.journal.JournalRecord;
+import com.eagle.journal.LedgerJournal;
+import com.eagle.journal.LedgerJournalFactory;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.exceptions.JournalRecordTooLargeException;
+import com.eagle.exceptions.UnsupportedLedgerOperationException;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.LedgerJdbcRepository;
+import com.eagle.repository.TransactionRepository;
+import com.eagle.repository.UserRepository;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+public class ShardedLedgerEngineTest {
+
+    private static final String ACCOUNT_NUMBER = "01300001";
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(5000.00);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private AccountBalanceCache balanceCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    Path journalDir;
+
+    private LedgerJournalFactory journalFactory;
+    private ShardedLedgerEngine engine;
+    private Account account;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        User user = userRepository.save(new User(
+                "shardUser",
+                new User.Address("1", "2", "3", "4", "5", "6"),
+                "",
+                "shard-" + UUID.randomUUID(),
+                ""
+        ));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserId(), null, Collections.emptyList()));
+        account = accountRepository.save(new Account(
+                user, ACCOUNT_NUMBER, SortCode.Branch1, "Sharded", AccountType.personal, Money.toMinorUnits(INITIAL_BALANCE), Currency.GBP));
+
+        journalFactory = new LedgerJournalFactory(journalDir.toString(), 1, FsyncPolicy.Mode.always, 0, 1);
+        engine = startEngine();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        engine.stop();
+        jdbcTemplate.update("DELETE FROM transaction WHERE account_id = ?", account.getId());
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(account.getUser().getUserId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void post_ConcurrentDepositsAndWithdrawalsArePersisted() throws Exception {
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(50));
+        List<Future<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(executor.submit(() -> engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN))));
+            futures.add(executor.submit(() -> engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, BigDecimal.TEN))));
+        }
+        Set<String> ids = new HashSet<>();
+        for (Future<Transaction> future : futures) {
+            ids.add(future.get(30, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+        assertEquals(1000, ids.size());
+
+        engine.stop();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE));
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Integer.class, account.getId()));
+        try (LedgerJournal journal = journalFactory.open(shardName())) {
+            assertEquals(1000, journal.lastSequence());
+            assertTrue(journal.unpersisted().isEmpty(), "Persisted records must be checkpointed");
+        }
+    }
+
+    @Test
+    void start_ReplaysJournaledRecordsMissingFromTheDatabase() throws Exception {
+        engine.stop();
+        List<JournalRecord> records = new ArrayList<>();
+        try (LedgerJournal journal = journalFactory.open(shardName())) {
+            for (int i = 0; i < 3; i++) {
+                JournalRecord record = new JournalRecord(UUID.randomUUID().toString(), account.getId(),
+                        TransactionType.deposit, Currency.GBP, 1000, "replay-" + i, "key-" + i, Instant.now());
+                journal.append(record);
+                records.add(record);
+            }
+            journal.force();
+        }
+        // The first record reached the database but the crash came before its checkpoint.
+        ledgerJdbcRepository.persist(records.subList(0, 1));
+
+        engine = startEngine();
+        engine.stop();
+        engine = startEngine();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE.add(BigDecimal.valueOf(30))));
+        assertEquals(3, transactionRepository.findExistingIds(records.stream().map(JournalRecord::transactionId).toList()).size());
+    }
+
+    @Test
+    void post_RejectsLikeTheJpaPath() {
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, BigDecimal.valueOf(6000.00))));
+        assertThrows(ConstraintViolationException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.valueOf(5000.01))));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("someone-else", null, Collections.emptyList()));
+        assertThrows(AccessDeniedException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN)));
+
+        assertEquals(0, engine.getAppliedCount());
+    }
+
+    @Test
+    void post_RejectsTransactionsTheDatabaseWouldRefuseBeforeJournaling() throws Exception {
+        assertThrows(ConstraintViolationException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.ZERO)));
+        CreateTransactionRequest longReference = request(TransactionType.deposit, BigDecimal.TEN);
+        longReference.setReference("r".repeat(256));
+        assertThrows(ConstraintViolationException.class, () -> engine.post(ACCOUNT_NUMBER, longReference));
+        assertEquals(0, engine.getAppliedCount());
+
+        engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN));
+        engine.stop();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE.add(BigDecimal.TEN)));
+        try (LedgerJournal journal = journalFactory.open(shardName())) {
+            assertEquals(1, journal.lastSequence());
+        }
+    }
+
+    @Test
+    void post_RejectsAWriteTheJournalRefusesAndKeepsTheShardRunning() throws Exception {
+        engine.stop();
+        LedgerJournalFactory refusing = mock(LedgerJournalFactory.class);
+        when(refusing.open(anyString())).thenAnswer(invocation -> {
+            LedgerJournal journal = spy(journalFactory.open(invocation.getArgument(0)));
+            doThrow(new JournalRecordTooLargeException("too large")).when(journal)
+                    .append(argThat(record -> "too-large".equals(record.reference())));
+            return journal;
+        });
+        engine = new ShardedLedgerEngine(accountRepository, transactionRepository,
+                ledgerJdbcRepository, validator, balanceCache, refusing, 4, 10000, 500, 100000);
+        engine.start();
+
+        CreateTransactionRequest tooLarge = request(TransactionType.deposit, BigDecimal.TEN);
+        tooLarge.setReference("too-large");
+        assertThrows(JournalRecordTooLargeException.class, () -> engine.post(ACCOUNT_NUMBER, tooLarge));
+
+        // The refused deposit never counted towards the balance and the shard still takes writes.
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, INITIAL_BALANCE.add(BigDecimal.ONE))));
+        engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, INITIAL_BALANCE));
+        engine.stop();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, updated.getBalance());
+        assertEquals(1, engine.getAppliedCount());
+    }
+
+    @Test
+    void persist_DropsARecordTheDatabaseRefusesAndKeepsTheShardRunning() throws Exception {
+        engine.stop();
+        LedgerJdbcRepository refusing = mock(LedgerJdbcRepository.class);
+        doAnswer(invocation -> {
+            List<JournalRecord> records = invocation.getArgument(0);
+            if (records.stream().anyMatch(record -> "refused".equals(record.reference()))) {
+                throw new DataIntegrityViolationException("check constraint");
+            }
+            ledgerJdbcRepository.persist(records);
+            return null;
+        }).when(refusing).persist(anyList());
+        engine = startEngine(refusing, 100000);
+
+        CreateTransactionRequest refused = request(TransactionType.deposit, BigDecimal.TEN);
+        refused.setReference("refused");
+        engine.post(ACCOUNT_NUMBER, refused);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (engine.getDroppedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, engine.getDroppedCount());
+
+        // The shard took the dropped deposit back out of its balance and still takes writes.
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, INITIAL_BALANCE.add(BigDecimal.ONE))));
+        engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, INITIAL_BALANCE));
+        engine.stop();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, updated.getBalance());
+    }
+
+    @Test
+    void start_DropsAJournaledRecordTheDatabaseRefuses() throws Exception {
+        engine.stop();
+        try (LedgerJournal journal = journalFactory.open(shardName())) {
+            journal.append(new JournalRecord(UUID.randomUUID().toString(), account.getId(),
+                    TransactionType.deposit, Currency.GBP, 0, "zero", null, Instant.now()));
+            journal.append(new JournalRecord(UUID.randomUUID().toString(), account.getId(),
+                    TransactionType.deposit, Currency.GBP, 1000, "valid", null, Instant.now()));
+            journal.force();
+        }
+
+        engine = startEngine();
+
+        assertEquals(1, engine.getDroppedCount());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE.add(BigDecimal.TEN)));
+        engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN));
+    }
+
+    @Test
+    void persist_ShardStopsAfterRepeatedFailuresAndReplaysOnRestart() throws Exception {
+        engine.stop();
+        LedgerJdbcRepository failing = mock(LedgerJdbcRepository.class);
+        doThrow(new DataAccessResourceFailureException("database down")).when(failing).persist(anyList());
+        engine = startEngine(failing, 100000);
+
+        engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        RuntimeException rejected = null;
+        while (rejected == null && System.nanoTime() < deadline) {
+            try {
+                engine.post(ACCOUNT_NUMBER, request(TransactionType.withdraw, BigDecimal.valueOf(10000.00)));
+            } catch (InsufficientFundsException ex) {
+                Thread.sleep(50);
+            } catch (IllegalStateException ex) {
+                rejected = ex;
+            }
+        }
+        assertNotNull(rejected, "Shard must stop taking writes once persisting keeps failing");
+        engine.stop();
+
+        engine = startEngine();
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE.add(BigDecimal.TEN)));
+    }
+
+    @Test
+    void post_ReloadsAccountsDroppedFromTheShardOncePersisted() throws Exception {
+        engine.stop();
+        engine = startEngine(ledgerJdbcRepository, 0);
+
+        for (int i = 0; i < 20; i++) {
+            engine.post(ACCOUNT_NUMBER, request(TransactionType.deposit, BigDecimal.TEN));
+            Thread.sleep(10);
+        }
+        engine.stop();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(INITIAL_BALANCE.add(BigDecimal.valueOf(200))));
+    }
+
+    @Test
+    void checkBypass_RefusesWritesOutsideTheEngine() {
+        assertThrows(UnsupportedLedgerOperationException.class, () -> engine.checkBypass("Transfers"));
+    }
+
+    private ShardedLedgerEngine startEngine() throws Exception {
+        return startEngine(ledgerJdbcRepository, 100000);
+    }
+
+    private ShardedLedgerEngine startEngine(LedgerJdbcRepository repository, int maxCachedAccounts) throws Exception {
+        ShardedLedgerEngine started = new ShardedLedgerEngine(accountRepository, transactionRepository,
+                repository, validator, balanceCache, journalFactory, 4, 10000, 500, maxCachedAccounts);
+        started.start();
+        return started;
+    }
+
+    private String shardName() {
+        return "shard-" + Math.floorMod(ACCOUNT_NUMBER.hashCode(), 4);
+    }
+
+    private CreateTransactionRequest request(TransactionType type, BigDecimal amount) {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(amount);
+        request.setCurrency(Currency.GBP);
+        request.setType(type);
+        return request;
+    }
+}
@@ -0,0 +1,253 @@
+package com.eagle.service;
+
+import com.eagle.dtos.BatchItemStatus;
+import com.eagle.dtos.BatchTransactionResult;
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.exceptions.ConcurrentTransactionException;
+import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.AccountStripeRepository;
+import com.eagle.repository.UserRepository;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StripedBalanceLedgerTest {
+
+    private static final String ACCOUNT_NUMBER = "01400001";
+    private static final long INITIAL_BALANCE = 500_000;
+
+    @Autowired
+    private StripedBalanceLedger stripedBalanceLedger;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountStripeRepository accountStripeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User(
+                "stripedUser",
+                new User.Address("1", "2", "3", "4", "5", "6"),
+                "",
+                "striped-" + UUID.randomUUID(),
+                ""
+        ));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserId(), null, Collections.emptyList()));
+        account = accountRepository.save(new Account(
+                user, ACCOUNT_NUMBER, SortCode.Branch1, "Payroll", AccountType.personal, INITIAL_BALANCE, Currency.GBP));
+        stripedBalanceLedger.enableStriping(ACCOUNT_NUMBER, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transaction WHERE account_id = ?", account.getId());
+        jdbcTemplate.update("DELETE FROM account_stripe WHERE account_id = ?", account.getId());
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(account.getUser().getUserId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void enableStriping_SpreadsBalanceAndReadsTheSum() {
+        Account striped = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+
+        assertEquals(4, striped.getStripeCount());
+        assertEquals(0, striped.getBalance());
+        assertEquals(INITIAL_BALANCE, stripedBalanceLedger.balanceOf(striped));
+        assertEquals(INITIAL_BALANCE, Money.toMinorUnits(accountStripeRepository.sumBalance(striped.getId())));
+    }
+
+    @Test
+    void createTransaction_ConcurrentWritesNeverTouchTheAccountRow() throws Exception {
+        long version = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getVersion();
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(50));
+        List<Future<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(executor.submit(() -> transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit, "10"))));
+            futures.add(executor.submit(() -> transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.withdraw, "10"))));
+        }
+        for (Future<Transaction> future : futures) {
+            assertNotNull(future.get(60, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(version, updated.getVersion(), "Striped writes must not update the account row");
+        assertEquals(INITIAL_BALANCE, stripedBalanceLedger.balanceOf(updated));
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Integer.class, account.getId()));
+    }
+
+    @Test
+    void createTransaction_WithdrawalsBorrowAcrossStripesButNeverOverdraw() {
+        // Larger than any single stripe (1250.00), so it has to consolidate.
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.withdraw, "4999.99"));
+
+        assertThrows(InsufficientFundsException.class,
+                () -> transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.withdraw, "0.02")));
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.withdraw, "0.01"));
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, stripedBalanceLedger.balanceOf(updated));
+    }
+
+    @Test
+    void createTransaction_DepositsRespectTheBalanceCap() {
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit, "4999.99"));
+
+        assertThrows(ConstraintViolationException.class,
+                () -> transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit, "0.02")));
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit, "0.01"));
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(Account.MAX_BALANCE, stripedBalanceLedger.balanceOf(updated));
+        accountStripeRepository.findAll().stream()
+                .filter(stripe -> stripe.getAccount().getId().equals(account.getId()))
+                .forEach(stripe -> assertTrue(
+                        stripe.getBalance() <= StripedBalanceLedger.ceiling(stripe.getStripeIndex(), 4)));
+    }
+
+    @Test
+    void applyBatch_PostsEachItemToTheStripes() {
+        long version = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getVersion();
+
+        List<BatchTransactionResult> results = transactionService.applyBatch(ACCOUNT_NUMBER, List.of(
+                request(TransactionType.deposit, "100.00"),
+                request(TransactionType.withdraw, "9999.00"),
+                request(TransactionType.withdraw, "50.00")));
+
+        assertEquals(List.of(BatchItemStatus.applied, BatchItemStatus.insufficient_funds, BatchItemStatus.applied),
+                results.stream().map(BatchTransactionResult::getStatus).toList());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(version, updated.getVersion());
+        assertEquals(INITIAL_BALANCE + 5_000, stripedBalanceLedger.balanceOf(updated));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ?", Integer.class, account.getId()));
+    }
+
+    @Test
+    void commitGroup_PostsToTheStripesAndRejectsPerCommand() {
+        String userId = account.getUser().getUserId();
+
+        List<LedgerOutcome> outcomes = transactionService.commitGroup(List.of(
+                new LedgerCommand(ACCOUNT_NUMBER, request(TransactionType.withdraw, "9999.00"), userId, null),
+                new LedgerCommand(ACCOUNT_NUMBER, request(TransactionType.deposit, "10.00"), userId, null)));
+
+        assertInstanceOf(InsufficientFundsException.class, outcomes.get(0).failure());
+        assertNotNull(outcomes.get(1).transaction());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(INITIAL_BALANCE + 1_000, stripedBalanceLedger.balanceOf(updated));
+    }
+
+    @Test
+    void apply_StripeDeadlockBetweenUnitsOfWorkIsAConflict() throws Exception {
+        Account striped = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        CyclicBarrier bothHoldAStripe = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int stripe : new int[]{0, 3}) {
+            futures.add(executor.submit(() -> template.executeWithoutResult(status -> {
+                // An earlier write of the unit of work keeps its stripe locked until commit.
+                accountStripeRepository.applyDelta(striped.getId(), stripe, BigDecimal.ONE,
+                        Money.toDecimal(StripedBalanceLedger.ceiling(stripe, 4)));
+                await(bothHoldAStripe);
+                // Larger than any stripe, so it consolidates and needs the stripe the other one holds.
+                stripedBalanceLedger.apply(striped, new Transaction(striped, TransactionType.withdraw, Currency.GBP, 200_000, null));
+            })));
+        }
+
+        int conflicts = 0;
+        for (Future<?> future : futures) {
+            try {
+                future.get(60, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                assertInstanceOf(ConcurrentTransactionException.class, ex.getCause());
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, conflicts);
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(INITIAL_BALANCE + 100 - 200_000, stripedBalanceLedger.balanceOf(updated));
+    }
+
+    @Test
+    void disableStriping_FoldsStripesBackIntoTheBalance() {
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit, "123.45"));
+
+        Account unstriped = stripedBalanceLedger.disableStriping(ACCOUNT_NUMBER);
+
+        assertFalse(unstriped.isStriped());
+        assertEquals(512_345, unstriped.getBalance());
+        assertEquals(0, Money.toMinorUnits(accountStripeRepository.sumBalance(unstriped.getId())));
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.withdraw, "123.45"));
+        assertEquals(INITIAL_BALANCE, accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void ceiling_StripeCeilingsAddUpToTheCap() {
+        for (int stripes = 1; stripes <= 64; stripes++) {
+            long total = 0;
+            for (int i = 0; i < stripes; i++) {
+                total += StripedBalanceLedger.ceiling(i, stripes);
+            }
+            assertEquals(Account.MAX_BALANCE, total, "stripes=" + stripes);
+        }
+    }
+
+    private CreateTransactionRequest request(TransactionType type, String amount) {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency(Currency.GBP);
+        request.setType(type);
+        return request;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.eagle.service;
+
+import com.eagle.dtos.*;
+import com.eagle.entity.Currency;
+import com.eagle.exceptions.AccountNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionBatchServiceTest {
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private LedgerEngine ledgerEngine;
+
+    @InjectMocks
+    private TransactionBatchService transactionBatchService;
+
+    @Test
+    void submit_GroupsByAccountInSortedOrderAndKeepsItemOrder() {
+        List<BatchTransactionItem> items = List.of(
+                item("01000002"), item("01000001"), item("01000002"), item("01000003"));
+        when(transactionService.applyBatch(anyString(), anyList())).thenAnswer(invocation -> {
+            String accountNumber = invocation.getArgument(0);
+            List<?> group = invocation.getArgument(1);
+            List<BatchTransactionResult> results = new ArrayList<>();
+            for (int i = 0; i < group.size(); i++) {
+                results.add(new BatchTransactionResult(i, accountNumber, BatchItemStatus.applied, null));
+            }
+            return results;
+        });
+
+        BatchTransactionResponse response = transactionBatchService.submit(items);
+
+        InOrder inOrder = inOrder(transactionService);
+        inOrder.verify(transactionService).applyBatch(eq("01000001"), argThat(group -> group.size() == 1));
+        inOrder.verify(transactionService).applyBatch(eq("01000002"), argThat(group -> group.size() == 2));
+        inOrder.verify(transactionService).applyBatch(eq("01000003"), argThat(group -> group.size() == 1));
+
+        List<BatchTransactionResult> results = response.getResults();
+        assertEquals(4, results.size());
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(items.get(i).getAccountNumber(), results.get(i).getAccountNumber());
+        }
+    }
+
+    @Test
+    void submit_AccountLevelFailuresRejectOnlyThatGroup() {
+        List<BatchTransactionItem> items = List.of(item("01000001"), item("01000002"), item("01000001"));
+        when(transactionService.applyBatch(eq("01000001"), anyList()))
+                .thenThrow(new AccountNotFoundException("01000001"));
+        when(transactionService.applyBatch(eq("01000002"), anyList()))
+                .thenThrow(new AccessDeniedException("User does not own this account"));
+
+        List<BatchTransactionResult> results = transactionBatchService.submit(items).getResults();
+
+        assertEquals(BatchItemStatus.account_not_found, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.forbidden, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.account_not_found, results.get(2).getStatus());
+    }
+
+    private BatchTransactionItem item(String accountNumber) {
+        BatchTransactionItem item = new BatchTransactionItem();
+        item.setAccountNumber(accountNumber);
+        item.setAmount(BigDecimal.TEN);
+        item.setCurrency(Currency.GBP);
+        item.setType(TransactionType.deposit);
+        return item;
+    }
+}
@@ -0,0 +1,149 @@
+package com.eagle.service;
+
+import com.eagle.dtos.AccountView;
+import com.eagle.dtos.StatementFormat;
+import com.eagle.dtos.StatementLine;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.Account;
+import com.eagle.entity.Currency;
+import com.eagle.entity.User;
+import com.eagle.exceptions.AccountNotFoundException;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.TransactionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionExportServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionExportService exportService;
+
+    private final String userId = "user123";
+    private final String accountNumber = "01123456";
+    private final Instant timestamp = Instant.parse("2025-03-01T09:30:00Z");
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        exportService = new TransactionExportService(accountRepository, transactionRepository, objectMapper);
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null));
+
+        User user = new User();
+        user.setUserId(userId);
+        account = new Account();
+        account.setId("acc-1");
+        account.setUser(user);
+        account.setAccountNumber(accountNumber);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void export_Ndjson_WritesOneObjectPerLine() throws Exception {
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(account)));
+        when(transactionRepository.streamStatement("acc-1")).thenReturn(Stream.of(
+                new StatementLine("t1", new BigDecimal("10.00"), Currency.GBP, TransactionType.deposit, "Salary", timestamp),
+                new StatementLine("t2", new BigDecimal("2.50"), Currency.GBP, TransactionType.withdraw, null, timestamp)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(accountNumber, StatementFormat.ndjson, () -> out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"transactionId\":\"t1\",\"amount\":10.00,\"currency\":\"GBP\",\"type\":\"deposit\"," +
+                "\"reference\":\"Salary\",\"createdTimestamp\":\"2025-03-01T09:30:00Z\"}", lines[0]);
+        assertTrue(lines[1].startsWith("{\"transactionId\":\"t2\""));
+    }
+
+    @Test
+    void export_Csv_EscapesReferences() throws Exception {
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(account)));
+        when(transactionRepository.streamStatement("acc-1")).thenReturn(Stream.of(
+                new StatementLine("t1", new BigDecimal("10.00"), Currency.GBP, TransactionType.deposit, "Rent, \"May\"", timestamp)
+        ));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(accountNumber, StatementFormat.csv, () -> out);
+
+        assertEquals(TransactionExportService.CSV_HEADER + "\n" +
+                        "t1,10.00,GBP,deposit,\"Rent, \"\"May\"\"\",2025-03-01T09:30:00Z\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void export_UnauthorizedUser_DoesNotOpenSink() {
+        User otherUser = new User();
+        otherUser.setUserId("someone-else");
+        account.setUser(otherUser);
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(account)));
+        AtomicBoolean opened = new AtomicBoolean();
+
+        assertThrows(AccessDeniedException.class,
+                () -> exportService.export(accountNumber, StatementFormat.csv, () -> {
+                    opened.set(true);
+                    return new ByteArrayOutputStream();
+                }));
+
+        assertFalse(opened.get());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void export_AccountNotFound() {
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.empty());
+
+        assertThrows(AccountNotFoundException.class,
+                () -> exportService.export(accountNumber, StatementFormat.ndjson, ByteArrayOutputStream::new));
+    }
+
+    @Test
+    void csvField_PlainValuesAreNotQuoted() {
+        assertEquals("", TransactionExportService.csvField(null));
+        assertEquals("Salary", TransactionExportService.csvField("Salary"));
+        assertEquals("\"a\nb\"", TransactionExportService.csvField("a\nb"));
+    }
+
+    private static AccountView view(Account account) {
+        return new AccountView(account.getId(), account.getUser().getUserId(), account.getAccountNumber(),
+                account.getSortCode(), account.getName(), account.getAccountType(), account.getBalance(),
+                account.getCurrency(), account.getCreateTimeStamp(), account.getUpdateTimeStamp(),
+                account.getStripeCount(), 0);
+    }
+}
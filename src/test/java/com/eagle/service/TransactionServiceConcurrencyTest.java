@@ -1,22 +1,28 @@
 package com.eagle.service;
 
 import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.CreateTransferRequest;
+import com.eagle.dtos.TransferResponse;
 import com.eagle.dtos.TransactionType;
 import com.eagle.entity.*;
 import com.eagle.entity.Currency;
 import com.eagle.exceptions.ConcurrentTransactionException;
 import com.eagle.exceptions.InsufficientFundsException;
 import com.eagle.repository.AccountRepository;
+import com.eagle.repository.TransactionRepository;
 import com.eagle.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import javax.sql.DataSource;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -34,6 +40,12 @@ public class TransactionServiceConcurrencyTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
     private static final String ACCOUNT_NUMBER = "01100001";
 
     private static final BigDecimal initialBalance = BigDecimal.valueOf(5000.00);
@@ -67,12 +79,45 @@ public class TransactionServiceConcurrencyTest {
                 SortCode.Branch1,
                 "Account_Name",
                 AccountType.personal,
-                initialBalance,
+                Money.toMinorUnits(initialBalance),
                 Currency.GBP
         );
         Account savedAccount = accountRepository.save(account);
     }
 
+    @Test
+    void transfer_OppositeDirectionsBetweenSamePairNeitherDeadlockNorLoseUpdates() throws Exception {
+        String otherAccountNumber = "01100002";
+        accountRepository.save(new Account(testUser, otherAccountNumber, SortCode.Branch1, "Other_Account",
+                AccountType.personal, Money.toMinorUnits(initialBalance), Currency.GBP));
+        int transfersEachWay = 500;
+
+        // Called without the retry policy: a deadlock or lock timeout would fail the transfer outright.
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(32));
+        List<Future<TransferResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < transfersEachWay; i++) {
+            futures.add(executor.submit(() -> transactionService.transfer(ACCOUNT_NUMBER, transfer(otherAccountNumber))));
+            futures.add(executor.submit(() -> transactionService.transfer(otherAccountNumber, transfer(ACCOUNT_NUMBER))));
+        }
+        for (Future<TransferResponse> future : futures) {
+            assertNotNull(future.get(60, TimeUnit.SECONDS).getCredit().getTransactionId());
+        }
+        executor.shutdown();
+
+        long expected = Money.toMinorUnits(initialBalance);
+        assertEquals(expected, accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getBalance());
+        assertEquals(expected, accountRepository.findByAccountNumber(otherAccountNumber).orElseThrow().getBalance());
+        assertEquals(4L * transfersEachWay, transactionRepository.count());
+    }
+
+    private CreateTransferRequest transfer(String toAccountNumber) {
+        CreateTransferRequest request = new CreateTransferRequest();
+        request.setToAccountNumber(toAccountNumber);
+        request.setAmount(BigDecimal.ONE);
+        request.setCurrency(Currency.GBP);
+        return request;
+    }
+
     @Test
     void testConcurrentTransactions() throws InterruptedException, ExecutionException {
         // Prepare a withdraw request
@@ -119,7 +164,7 @@ public class TransactionServiceConcurrencyTest {
 
         // Verify final balance = 0 (because both withdrawals succeeded)
         Account updatedAccount = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
-        assertEquals(0, updatedAccount.getBalance().compareTo(initialBalance.subtract(BigDecimal.valueOf(100))));
+        assertEquals(0, Money.toDecimal(updatedAccount.getBalance()).compareTo(initialBalance.subtract(BigDecimal.valueOf(100))));
     }
 
     @Test
@@ -180,7 +225,7 @@ public class TransactionServiceConcurrencyTest {
 
         // ✅ Final balance should still be the initialBalance (500x +10, 500x -10 → net 0 change)
         Account updatedAccount = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
-        assertEquals(0, updatedAccount.getBalance().compareTo(initialBalance));
+        assertEquals(0, Money.toDecimal(updatedAccount.getBalance()).compareTo(initialBalance));
     }
 
     @Test
@@ -199,7 +244,7 @@ public class TransactionServiceConcurrencyTest {
                     SortCode.Branch1,
                     "Account_" + i,
                     AccountType.personal,
-                    initialBalancePerAccount,
+                    Money.toMinorUnits(initialBalancePerAccount),
                     Currency.GBP
             );
             accounts.add(accountRepository.save(acc));
@@ -264,7 +309,7 @@ public class TransactionServiceConcurrencyTest {
         // ✅ Compute final total balance across all accounts
         BigDecimal totalFinalBalance = accountRepository.findAll().stream()
                 .filter(acc -> accounts.stream().anyMatch(a -> a.getId().equals(acc.getId()))) // only test accounts
-                .map(Account::getBalance)
+                .map(acc -> Money.toDecimal(acc.getBalance()))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         // ✅ Ensure total balance NEVER went negative or exceeded expected max
@@ -281,5 +326,116 @@ public class TransactionServiceConcurrencyTest {
         System.out.println("✅ Concurrency test passed! Final total balance = " + totalFinalBalance);
     }
 
+    @Test
+    void testGroupCommitWriterCoalescesConcurrentTransactions() throws Exception {
+        GroupCommitLedgerWriter writer = new GroupCommitLedgerWriter(transactionService, 10000, 100, 5);
+        writer.start();
+
+        CreateTransactionRequest depositRequest = new CreateTransactionRequest();
+        depositRequest.setAmount(BigDecimal.TEN);
+        depositRequest.setCurrency(Currency.GBP);
+        depositRequest.setType(TransactionType.deposit);
+
+        CreateTransactionRequest withdrawRequest = new CreateTransactionRequest();
+        withdrawRequest.setAmount(BigDecimal.TEN);
+        withdrawRequest.setCurrency(Currency.GBP);
+        withdrawRequest.setType(TransactionType.withdraw);
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(50));
+        List<Future<Transaction>> futures = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            futures.add(executor.submit(() -> writer.post(ACCOUNT_NUMBER, depositRequest)));
+            futures.add(executor.submit(() -> writer.post(ACCOUNT_NUMBER, withdrawRequest)));
+        }
+        for (Future<Transaction> f : futures) {
+            assertNotNull(f.get(60, TimeUnit.SECONDS).getId());
+        }
+        executor.shutdown();
+        writer.stop();
+
+        assertEquals(1000, writer.getWriteCount());
+        assertTrue(writer.getCommitCount() < 1000, "Expected shared commits, got " + writer.getCommitCount());
+        System.out.println("Group commit: 1000 writes in " + writer.getCommitCount() + " commits");
+
+        Account updatedAccount = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updatedAccount.getBalance()).compareTo(initialBalance));
+    }
+
+    @Test
+    void testConflictRetryImprovesThroughputUnderLockContention() throws Exception {
+        // Baseline is the old behaviour: the first lock timeout goes straight back to the client.
+        ConflictRetryPolicy noRetry = new ConflictRetryPolicy(1, 10, 1000, 20);
+        ConflictRetryPolicy retry = new ConflictRetryPolicy(5, 10, 1000, 20);
+
+        double baselineThroughput = runUnderLockContention(new JpaLedgerEngine(transactionService, noRetry));
+        double retryThroughput = runUnderLockContention(new JpaLedgerEngine(transactionService, retry));
+
+        System.out.printf("Successful transactions/s under contention: %.1f without retry, %.1f with retry (%d retries)%n",
+                baselineThroughput, retryThroughput, retry.getRetryCount());
+        assertTrue(noRetry.getExhaustedCount() > 0, "Contention should have produced lock timeouts");
+        assertTrue(retry.getRetryCount() > 0);
+        assertEquals(0, retry.getExhaustedCount());
+        assertEquals(0, retry.getBudgetRejectionCount());
+        assertTrue(retryThroughput > baselineThroughput,
+                "Retrying should raise successful throughput: " + baselineThroughput + " -> " + retryThroughput);
+
+        Account updatedAccount = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updatedAccount.getBalance()).compareTo(initialBalance));
+    }
+
+    /**
+     * Holds the hot account's row lock past the database lock timeout while 40 deposits and
+     * withdrawals queue up behind it, and returns successful transactions per second.
+     */
+    private double runUnderLockContention(LedgerEngine engine) throws Exception {
+        CreateTransactionRequest depositRequest = new CreateTransactionRequest();
+        depositRequest.setAmount(BigDecimal.TEN);
+        depositRequest.setCurrency(Currency.GBP);
+        depositRequest.setType(TransactionType.deposit);
 
+        CreateTransactionRequest withdrawRequest = new CreateTransactionRequest();
+        withdrawRequest.setAmount(BigDecimal.TEN);
+        withdrawRequest.setCurrency(Currency.GBP);
+        withdrawRequest.setType(TransactionType.withdraw);
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(8));
+        List<Future<Transaction>> futures = new ArrayList<>();
+        long start;
+        try (Connection holder = dataSource.getConnection()) {
+            holder.setAutoCommit(false);
+            try (PreparedStatement lock = holder.prepareStatement("SELECT balance FROM account WHERE account_number = ? FOR UPDATE")) {
+                lock.setString(1, ACCOUNT_NUMBER);
+                lock.executeQuery().close();
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> engine.post(ACCOUNT_NUMBER, depositRequest)));
+                futures.add(executor.submit(() -> engine.post(ACCOUNT_NUMBER, withdrawRequest)));
+            }
+            Thread.sleep(2500);
+            holder.rollback();
+        }
+
+        int succeeded = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(60, TimeUnit.SECONDS);
+                succeeded++;
+            } catch (ExecutionException ex) {
+                assertInstanceOf(ConcurrentTransactionException.class, ex.getCause());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        // Rebalance whatever failed so every run starts from the initial balance.
+        BigDecimal drift = Money.toDecimal(accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow().getBalance()).subtract(initialBalance);
+        if (drift.signum() != 0) {
+            CreateTransactionRequest correction = drift.signum() > 0 ? withdrawRequest : depositRequest;
+            for (int i = 0; i < drift.abs().divide(BigDecimal.TEN).intValue(); i++) {
+                transactionService.createTransaction(ACCOUNT_NUMBER, correction);
+            }
+        }
+        return succeeded / seconds;
+    }
 }
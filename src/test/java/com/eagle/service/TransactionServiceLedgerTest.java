@@ -0,0 +1,338 @@
+package com.eagle.service;
+
+import com.eagle.dtos.BatchItemStatus;
+import com.eagle.dtos.BatchTransactionResult;
+import com.eagle.dtos.CreateTransactionRequest;
+import com.eagle.dtos.ListTransactionsResponse;
+import com.eagle.dtos.StatementFormat;
+import com.eagle.dtos.TransactionResponse;
+import com.eagle.dtos.TransactionType;
+import com.eagle.entity.*;
+import com.eagle.entity.Currency;
+import com.eagle.repository.AccountRepository;
+import com.eagle.repository.TransactionRepository;
+import com.eagle.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class TransactionServiceLedgerTest {
+
+    private static final String ACCOUNT_NUMBER = "01200001";
+    private static final int PRIOR_TRANSACTIONS = 10_000;
+    private static final int SAMPLE_SIZE = 200;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionExportService transactionExportService;
+
+    @Autowired
+    private LedgerEngine ledgerEngine;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountBalanceCache balanceCache;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User(
+                "ledgerUser",
+                new User.Address("1", "2", "3", "4", "5", "6"),
+                "",
+                "ledger-" + UUID.randomUUID(),
+                ""
+        ));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user.getUserId(), null, Collections.emptyList()));
+
+        account = accountRepository.save(new Account(
+                user,
+                ACCOUNT_NUMBER,
+                SortCode.Branch1,
+                "Ledger",
+                AccountType.personal,
+                500_000,
+                Currency.GBP
+        ));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM transaction WHERE account_id = ?", account.getId());
+        accountRepository.deleteById(account.getId());
+        userRepository.deleteById(account.getUser().getUserId());
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createTransaction_NeverLoadsHistory() {
+        seedHistory(PRIOR_TRANSACTIONS);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            runDepositsAndWithdrawals(SAMPLE_SIZE);
+            assertEquals(0, statistics.getCollectionLoadCount(), "Account.transactions must never be loaded");
+            assertEquals(SAMPLE_SIZE, statistics.getEntityInsertCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(BigDecimal.valueOf(5000.00)));
+    }
+
+    /**
+     * Wall-clock comparison of write latency with and without history, too noisy to assert on in CI.
+     * Run with {@code ./mvnw test -Dtest=TransactionServiceLedgerTest -Deagle.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "eagle.benchmark", matches = "true")
+    void createTransaction_LatencyWithAndWithoutHistory() {
+        // Warm up JIT, connection pool and statement caches before sampling.
+        runDepositsAndWithdrawals(SAMPLE_SIZE);
+        long emptyHistoryNanos = runDepositsAndWithdrawals(SAMPLE_SIZE);
+        seedHistory(PRIOR_TRANSACTIONS);
+        long longHistoryNanos = runDepositsAndWithdrawals(SAMPLE_SIZE);
+
+        System.out.printf("Ledger write latency: %d us with no history, %d us with %d prior transactions%n",
+                emptyHistoryNanos / SAMPLE_SIZE / 1000, longHistoryNanos / SAMPLE_SIZE / 1000, PRIOR_TRANSACTIONS);
+    }
+
+    @Test
+    void listTransactions_KeysetWalkVisitsEveryRowOnce() {
+        // Seeded rows share one timestamp, so paging relies on the id tie-breaker.
+        seedHistory(250);
+        runDepositsAndWithdrawals(10);
+
+        Set<String> seen = new HashSet<>();
+        TransactionResponse previous = null;
+        String cursor = null;
+        int pages = 0;
+        do {
+            ListTransactionsResponse page = transactionService.listTransactions(ACCOUNT_NUMBER, cursor, 40);
+            for (TransactionResponse row : page.getTransactions()) {
+                assertTrue(seen.add(row.getTransactionId()), "Row returned twice: " + row.getTransactionId());
+                if (previous != null) {
+                    int order = row.getCreateTimeStamp().compareTo(previous.getCreateTimeStamp());
+                    assertTrue(order < 0 || (order == 0 && row.getTransactionId().compareTo(previous.getTransactionId()) < 0));
+                }
+                previous = row;
+            }
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(260, seen.size());
+        assertEquals(7, pages);
+    }
+
+    @Test
+    void applyBatch_OneLockAndBatchedInsertPerGroup() {
+        List<CreateTransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(request(TransactionType.deposit));
+        }
+        requests.add(request(TransactionType.withdraw));
+        requests.get(100).setAmount(BigDecimal.valueOf(9000.00));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        List<BatchTransactionResult> results;
+        try {
+            results = transactionService.applyBatch(ACCOUNT_NUMBER, requests);
+            // One locking select, one balance update and 100 inserts sent as two JDBC batches.
+            assertEquals(100, statistics.getEntityInsertCount());
+            assertEquals(1, statistics.getEntityUpdateCount());
+            assertTrue(statistics.getPrepareStatementCount() <= 4,
+                    "Expected batched inserts, got " + statistics.getPrepareStatementCount() + " statements");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        assertEquals(100, results.stream().filter(r -> r.getStatus() == BatchItemStatus.applied).count());
+        assertEquals(BatchItemStatus.insufficient_funds, results.get(100).getStatus());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(BigDecimal.valueOf(6000.00)));
+    }
+
+    @Test
+    void applyBatch_ReportsDepositOverBalanceCapAndAppliesTheRest() {
+        List<CreateTransactionRequest> requests = List.of(
+                request(TransactionType.deposit),
+                request(TransactionType.deposit),
+                request(TransactionType.deposit));
+        requests.get(1).setAmount(BigDecimal.valueOf(9000.00));
+
+        List<BatchTransactionResult> results = transactionService.applyBatch(ACCOUNT_NUMBER, requests);
+
+        assertEquals(List.of(BatchItemStatus.applied, BatchItemStatus.balance_limit_exceeded, BatchItemStatus.applied),
+                results.stream().map(BatchTransactionResult::getStatus).toList());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(BigDecimal.valueOf(5020.00)));
+    }
+
+    @Test
+    void applyBatch_ReportsItemsTheEntityRefusesAndAppliesTheRest() {
+        List<CreateTransactionRequest> requests = List.of(
+                request(TransactionType.deposit),
+                request(TransactionType.deposit),
+                request(TransactionType.deposit));
+        requests.get(1).setAmount(BigDecimal.ZERO);
+        requests.get(2).setReference("r".repeat(256));
+
+        List<BatchTransactionResult> results = transactionService.applyBatch(ACCOUNT_NUMBER, requests);
+
+        assertEquals(List.of(BatchItemStatus.applied, BatchItemStatus.invalid, BatchItemStatus.invalid),
+                results.stream().map(BatchTransactionResult::getStatus).toList());
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(BigDecimal.valueOf(5010.00)));
+    }
+
+    @Test
+    void export_StreamsWholeHistory() throws Exception {
+        seedHistory(PRIOR_TRANSACTIONS);
+        long[] newlines = new long[1];
+        OutputStream counting = new OutputStream() {
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    newlines[0]++;
+                }
+            }
+        };
+
+        transactionExportService.export(ACCOUNT_NUMBER, StatementFormat.csv, () -> counting);
+
+        assertEquals(PRIOR_TRANSACTIONS + 1, newlines[0]);
+    }
+
+    @Test
+    void idempotencyKey_RetryPostsOnceAndReplaysFromDatabaseWithoutLocking() {
+        IdempotencyService idempotencyService = new IdempotencyService(ledgerEngine, transactionRepository, 100, 3600);
+        CreateTransactionRequest deposit = request(TransactionType.deposit);
+
+        IdempotencyService.Outcome first = idempotencyService.post(ACCOUNT_NUMBER, deposit, "retry-1");
+        IdempotencyService.Outcome retry = idempotencyService.post(ACCOUNT_NUMBER, deposit, "retry-1");
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response().getTransactionId(), retry.response().getTransactionId());
+
+        // A restarted instance has an empty index and must find the key through the unique column.
+        IdempotencyService restarted = new IdempotencyService(ledgerEngine, transactionRepository, 100, 3600);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        IdempotencyService.Outcome afterRestart;
+        try {
+            afterRestart = restarted.post(ACCOUNT_NUMBER, deposit, "retry-1");
+            assertEquals(0, statistics.getEntityInsertCount());
+            assertEquals(0, statistics.getEntityUpdateCount());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertTrue(afterRestart.replayed());
+        assertEquals(first.response().getTransactionId(), afterRestart.response().getTransactionId());
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM transaction WHERE account_id = ? AND idempotency_key = ?",
+                Integer.class, account.getId(), "retry-1");
+        assertEquals(1, rows);
+        Account updated = accountRepository.findByAccountNumber(ACCOUNT_NUMBER).orElseThrow();
+        assertEquals(0, Money.toDecimal(updated.getBalance()).compareTo(BigDecimal.valueOf(5010.00)));
+    }
+
+    @Test
+    void getAccount_ServesCommittedBalanceFromCacheWithoutQuerying() {
+        // Every test recreates the same account number, so drop whatever an earlier one cached.
+        balanceCache.evict(ACCOUNT_NUMBER);
+        assertEquals(0, accountService.get(ACCOUNT_NUMBER).getBalance().compareTo(BigDecimal.valueOf(5000.00)));
+
+        transactionService.createTransaction(ACCOUNT_NUMBER, request(TransactionType.deposit));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        long hits = balanceCache.getHitCount();
+        try {
+            assertEquals(0, accountService.get(ACCOUNT_NUMBER).getBalance().compareTo(BigDecimal.valueOf(5010.00)));
+            assertEquals(0, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        assertEquals(hits + 1, balanceCache.getHitCount());
+    }
+
+    private long runDepositsAndWithdrawals(int count) {
+        CreateTransactionRequest deposit = request(TransactionType.deposit);
+        CreateTransactionRequest withdraw = request(TransactionType.withdraw);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            transactionService.createTransaction(ACCOUNT_NUMBER, i % 2 == 0 ? deposit : withdraw);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private CreateTransactionRequest request(TransactionType type) {
+        CreateTransactionRequest request = new CreateTransactionRequest();
+        request.setAmount(BigDecimal.TEN);
+        request.setCurrency(Currency.GBP);
+        request.setType(type);
+        return request;
+    }
+
+    private void seedHistory(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        Timestamp timestamp = Timestamp.from(Instant.now());
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{UUID.randomUUID().toString(), BigDecimal.ONE, Currency.GBP.name(),
+                    TransactionType.deposit.name(), timestamp, account.getId(), "seed-" + i});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO transaction (id, amount, currency, type, timestamp, account_id, reference) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
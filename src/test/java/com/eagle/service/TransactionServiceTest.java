@@ -1,5 +1,6 @@
 package com.eagle.service;
 
+import com.eagle.dtos.AccountView;
 import com.eagle.entity.Account;
 import com.eagle.entity.Currency;
 import com.eagle.entity.Transaction;
@@ -7,26 +8,34 @@ import com.eagle.entity.User;
 import com.eagle.exceptions.AccountNotFoundException;
 import com.eagle.exceptions.ConcurrentTransactionException;
 import com.eagle.exceptions.InsufficientFundsException;
+import com.eagle.exceptions.InvalidCursorException;
+import com.eagle.exceptions.InvalidTransferException;
 import com.eagle.dtos.*;
 import com.eagle.repository.AccountRepository;
 import com.eagle.repository.TransactionRepository;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +47,12 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private AccountBalanceCache balanceCache;
+
+    @Mock
+    private Validator validator;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -66,7 +81,7 @@ class TransactionServiceTest {
         testAccount.setAccountNumber(accountNumber);
         testAccount.setUser(user);
         testAccount.setCurrency(Currency.GBP);
-        testAccount.setBalance(BigDecimal.valueOf(1000.00));
+        testAccount.setBalance(100_000);
         testAccount.setId(UUID.randomUUID().toString());
 
         depositRequest = new CreateTransactionRequest();
@@ -86,42 +101,58 @@ class TransactionServiceTest {
     void createTransaction_Deposit_Success() {
         when(accountRepository.findWithLockingByAccountNumber(accountNumber))
                 .thenReturn(Optional.of(testAccount));
-        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().forEach(tx -> tx.setId("id")); // 设置模拟ID
-            return savedAccount;
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction savedTransaction = invocation.getArgument(0);
+            savedTransaction.setId("id");
+            return savedTransaction;
         });
 
         Transaction transaction = transactionService.createTransaction(accountNumber, depositRequest);
 
         assertNotNull(transaction);
         assertEquals(TransactionType.deposit, transaction.getType());
-        assertEquals(BigDecimal.valueOf(100.00), transaction.getAmount());
+        assertEquals(10_000, transaction.getAmount());
         assertEquals("Salary", transaction.getReference());
 
-        assertEquals(BigDecimal.valueOf(1100.00), testAccount.getBalance());
+        assertEquals(110_000, testAccount.getBalance());
 
-        verify(accountRepository).save(testAccount);
-        assertTrue(testAccount.getTransactions().contains(transaction));
+        assertEquals("id", transaction.getId());
+        assertSame(testAccount, transaction.getAccount());
+        verify(transactionRepository).saveAndFlush(transaction);
+        verify(accountRepository, never()).save(any(Account.class));
+        assertTrue(testAccount.getTransactions().isEmpty());
     }
 
     @Test
     void createTransaction_Withdrawal_Success() {
         when(accountRepository.findWithLockingByAccountNumber(accountNumber))
                 .thenReturn(Optional.of(testAccount));
-        when(accountRepository.save(any(Account.class))).thenAnswer(invocation -> {
-            Account savedAccount = invocation.getArgument(0);
-            savedAccount.getTransactions().forEach(tx -> tx.setId("id")); // 设置模拟ID
-            return savedAccount;
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction savedTransaction = invocation.getArgument(0);
+            savedTransaction.setId("id");
+            return savedTransaction;
         });
 
         Transaction transaction = transactionService.createTransaction(accountNumber, withdrawalRequest);
 
         assertNotNull(transaction);
         assertEquals(TransactionType.withdraw, transaction.getType());
-        assertEquals(BigDecimal.valueOf(200.00), transaction.getAmount());
+        assertEquals(20_000, transaction.getAmount());
 
-        assertEquals(BigDecimal.valueOf(800.00), testAccount.getBalance());
+        assertEquals(80_000, testAccount.getBalance());
+    }
+
+    @Test
+    void createTransaction_NullReference_Success() {
+        depositRequest.setReference(null);
+        when(accountRepository.findWithLockingByAccountNumber(accountNumber))
+                .thenReturn(Optional.of(testAccount));
+        when(transactionRepository.saveAndFlush(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Transaction transaction = transactionService.createTransaction(accountNumber, depositRequest);
+
+        assertNull(transaction.getReference());
+        assertEquals(110_000, testAccount.getBalance());
     }
 
     @Test
@@ -170,7 +201,7 @@ class TransactionServiceTest {
                 .thenReturn(Optional.of(testAccount));
 
         doThrow(new OptimisticLockingFailureException("Concurrent update"))
-                .when(accountRepository).save(testAccount);
+                .when(transactionRepository).saveAndFlush(any(Transaction.class));
 
         ConcurrentTransactionException exception = assertThrows(
                 ConcurrentTransactionException.class,
@@ -192,4 +223,169 @@ class TransactionServiceTest {
                 () -> transactionService.createTransaction(accountNumber, invalidRequest)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void listTransactions_FirstPage_ReturnsCursorWhenMoreRows() {
+        Instant now = Instant.now();
+        List<TransactionResponse> rows = List.of(
+                new TransactionResponse("c", BigDecimal.ONE, Currency.GBP, TransactionType.deposit, now),
+                new TransactionResponse("b", BigDecimal.ONE, Currency.GBP, TransactionType.deposit, now),
+                new TransactionResponse("a", BigDecimal.ONE, Currency.GBP, TransactionType.deposit, now)
+        );
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(testAccount)));
+        when(transactionRepository.findLatest(testAccount.getId(), Limit.of(3))).thenReturn(rows);
+
+        ListTransactionsResponse page = transactionService.listTransactions(accountNumber, null, 2);
+
+        assertEquals(2, page.getTransactions().size());
+        assertEquals(new TransactionCursor(now, "b"), TransactionCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void listTransactions_WithCursor_SeeksPastCursor() {
+        Instant timestamp = Instant.parse("2025-01-01T10:15:30.123456Z");
+        String cursor = new TransactionCursor(timestamp, "tx-9").encode();
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(testAccount)));
+        when(transactionRepository.findBefore(testAccount.getId(), timestamp, "tx-9", Limit.of(51)))
+                .thenReturn(List.of());
+
+        ListTransactionsResponse page = transactionService.listTransactions(accountNumber, cursor, TransactionService.DEFAULT_PAGE_SIZE);
+
+        assertTrue(page.getTransactions().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void listTransactions_PageSizeIsCapped() {
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(testAccount)));
+        when(transactionRepository.findLatest(testAccount.getId(), Limit.of(TransactionService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        transactionService.listTransactions(accountNumber, null, 1_000_000);
+
+        verify(transactionRepository).findLatest(testAccount.getId(), Limit.of(TransactionService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void listTransactions_MalformedCursor() {
+        assertThrows(
+                InvalidCursorException.class,
+                () -> transactionService.listTransactions(accountNumber, "not-a-cursor", 10)
+        );
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    void listTransactions_UnauthorizedUser() {
+        User otherUser = new User();
+        otherUser.setUserId(UUID.randomUUID().toString());
+        testAccount.setUser(otherUser);
+        when(accountRepository.findViewByAccountNumber(accountNumber)).thenReturn(Optional.of(view(testAccount)));
+
+        assertThrows(
+                AccessDeniedException.class,
+                () -> transactionService.listTransactions(accountNumber, null, 10)
+        );
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void applyBatch_ReportsPerItemOutcomes() {
+        CreateTransactionRequest overdraw = new CreateTransactionRequest();
+        overdraw.setAmount(BigDecimal.valueOf(5000.00));
+        overdraw.setCurrency(Currency.GBP);
+        overdraw.setType(TransactionType.withdraw);
+
+        when(accountRepository.findWithLockingByAccountNumber(accountNumber))
+                .thenReturn(Optional.of(testAccount));
+        when(transactionRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BatchTransactionResult> results = transactionService.applyBatch(accountNumber,
+                List.of(depositRequest, overdraw, withdrawalRequest));
+
+        assertEquals(List.of(BatchItemStatus.applied, BatchItemStatus.insufficient_funds, BatchItemStatus.applied),
+                results.stream().map(BatchTransactionResult::getStatus).toList());
+        assertNotNull(results.get(0).getTransaction());
+        assertNull(results.get(1).getTransaction());
+        assertEquals(new BigDecimal("200.00"), results.get(2).getTransaction().getAmount());
+        assertEquals(90_000, testAccount.getBalance());
+        verify(accountRepository, times(1)).findWithLockingByAccountNumber(accountNumber);
+        verify(transactionRepository).saveAllAndFlush(argThat(rows -> ((List<?>) rows).size() == 2));
+    }
+
+    @Test
+    void transfer_LocksBothAccountsInAccountNumberOrder() {
+        Account target = new Account();
+        target.setAccountNumber("01000001");
+        target.setCurrency(Currency.GBP);
+        target.setBalance(0);
+        when(accountRepository.findWithLockingByAccountNumber(accountNumber)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithLockingByAccountNumber("01000001")).thenReturn(Optional.of(target));
+        when(transactionRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransferResponse response = transactionService.transfer(accountNumber, transferRequest("01000001", "250.00"));
+
+        InOrder locks = inOrder(accountRepository);
+        locks.verify(accountRepository).findWithLockingByAccountNumber("01000001");
+        locks.verify(accountRepository).findWithLockingByAccountNumber(accountNumber);
+        assertEquals(75_000, testAccount.getBalance());
+        assertEquals(25_000, target.getBalance());
+        assertEquals(TransactionType.withdraw, response.getDebit().getType());
+        assertEquals(TransactionType.deposit, response.getCredit().getType());
+        verify(transactionRepository).saveAllAndFlush(argThat(rows -> ((List<?>) rows).size() == 2));
+    }
+
+    @Test
+    void transfer_InsufficientFundsChangesNeitherAccount() {
+        Account target = new Account();
+        target.setAccountNumber("01999999");
+        target.setCurrency(Currency.GBP);
+        target.setBalance(0);
+        when(accountRepository.findWithLockingByAccountNumber(accountNumber)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findWithLockingByAccountNumber("01999999")).thenReturn(Optional.of(target));
+
+        assertThrows(InsufficientFundsException.class,
+                () -> transactionService.transfer(accountNumber, transferRequest("01999999", "1000.01")));
+
+        assertEquals(100_000, testAccount.getBalance());
+        assertEquals(0, target.getBalance());
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void transfer_ToSameAccountIsRejected() {
+        assertThrows(InvalidTransferException.class,
+                () -> transactionService.transfer(accountNumber, transferRequest(accountNumber, "1.00")));
+        verifyNoInteractions(accountRepository, transactionRepository);
+    }
+
+    @Test
+    void applyBatch_UnauthorizedUser() {
+        User otherUser = new User();
+        otherUser.setUserId(UUID.randomUUID().toString());
+        testAccount.setUser(otherUser);
+        when(accountRepository.findWithLockingByAccountNumber(accountNumber))
+                .thenReturn(Optional.of(testAccount));
+
+        assertThrows(
+                AccessDeniedException.class,
+                () -> transactionService.applyBatch(accountNumber, List.of(depositRequest))
+        );
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private CreateTransferRequest transferRequest(String toAccountNumber, String amount) {
+        CreateTransferRequest request = new CreateTransferRequest();
+        request.setToAccountNumber(toAccountNumber);
+        request.setAmount(new BigDecimal(amount));
+        request.setCurrency(Currency.GBP);
+        return request;
+    }
+
+    private static AccountView view(Account account) {
+        return new AccountView(account.getId(), account.getUser().getUserId(), account.getAccountNumber(),
+                account.getSortCode(), account.getName(), account.getAccountType(), account.getBalance(),
+                account.getCurrency(), account.getCreateTimeStamp(), account.getUpdateTimeStamp(),
+                account.getStripeCount(), 0);
+    }
+}
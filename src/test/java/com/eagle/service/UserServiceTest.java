@@ -1,5 +1,6 @@
 package com.eagle.service;
 
+import com.eagle.dtos.UserResponse;
 import com.eagle.entity.User;
 import com.eagle.repository.UserRepository;
 import org.junit.jupiter.api.AfterEach;
@@ -90,24 +91,24 @@ class UserServiceTest {
     @Test
     void findByUserId_SameUser_Success() {
         // Setup
-        User mockUser = new User();
-        when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(mockUser));
+        UserResponse response = new UserResponse(TEST_USER_ID, "Test", null, "07000000000", "test@example.com", null, null);
+        when(userRepository.findResponseByUserId(TEST_USER_ID)).thenReturn(Optional.of(response));
 
         // Execute
-        Optional<User> result = userService.findByUserId(TEST_USER_ID);
+        Optional<UserResponse> result = userService.findByUserId(TEST_USER_ID);
 
         // Verify
         assertTrue(result.isPresent());
-        assertEquals(mockUser, result.get());
+        assertEquals(response, result.get());
     }
 
     @Test
     void findByUserId_SameUser_NotFound() {
         // Setup
-        when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.empty());
+        when(userRepository.findResponseByUserId(TEST_USER_ID)).thenReturn(Optional.empty());
 
         // Execute
-        Optional<User> result = userService.findByUserId(TEST_USER_ID);
+        Optional<UserResponse> result = userService.findByUserId(TEST_USER_ID);
 
         // Verify
         assertTrue(result.isEmpty());
@@ -158,13 +159,30 @@ class UserServiceTest {
     @Test
     void findByUserId_SameUser_RepositoryCalledOnce() {
         // Setup
-        when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(new User()));
+        when(userRepository.findResponseByUserId(TEST_USER_ID)).thenReturn(Optional.empty());
 
         // Execute
         userService.findByUserId(TEST_USER_ID);
 
         // Verify
-        verify(userRepository, times(1)).findByUserId(TEST_USER_ID);
+        verify(userRepository, times(1)).findResponseByUserId(TEST_USER_ID);
         verifyNoMoreInteractions(userRepository);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updatePassword_StoresNewHash() {
+        // Setup
+        User mockUser = new User();
+        mockUser.setUserId(TEST_USER_ID);
+        mockUser.setPasswordHash(TEST_PASSWORD_HASH);
+        when(userRepository.findByUserId(TEST_USER_ID)).thenReturn(Optional.of(mockUser));
+
+        // Execute
+        UserDetails updated = userService.updatePassword(userService.toUserDetails(mockUser), "{bcrypt}new_hash");
+
+        // Verify
+        assertEquals("{bcrypt}new_hash", mockUser.getPasswordHash());
+        assertEquals("{bcrypt}new_hash", updated.getPassword());
+        assertEquals(TEST_USER_ID, updated.getUsername());
+    }
+}